@@ -8,10 +8,13 @@ import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.booking.dto.BookingDto;
+import ru.practicum.booking.dto.BookingStatusChangeDto;
 import ru.practicum.booking.model.State;
 import ru.practicum.client.BaseClient;
 import ru.practicum.exception.BadRequestException;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -37,35 +40,44 @@ public class BookingClient extends BaseClient {
                 "/" + bookingId + "?approved={approved}", ownerId, Map.of("approved", approved), null);
     }
 
+    public ResponseEntity<Object> changeStatuses(Long ownerId, List<BookingStatusChangeDto> changes) {
+        return patch("", ownerId, changes);
+    }
+
     public ResponseEntity<Object> getBookingById(Long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getAllByBooker(Long bookerId, String state, int from, int size) {
+    public ResponseEntity<Object> getBookingsByIds(Long userId, List<Long> bookingIds) {
+        return get("?ids={ids}", userId, idsParameter(bookingIds));
+    }
+
+    public ResponseEntity<Object> getAllByBooker(Long bookerId, String state, int from, int size, String cursor) {
         try {
             State.valueOf(state);
         } catch (IllegalArgumentException e) {
             throw new BadRequestException("Unknown state: " + state);
         }
-        Map<String, Object> parameters = Map.of(
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state,
                 "from", from,
                 "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", bookerId, parameters);
+        ));
+        return get(withCursor("?state={state}&from={from}&size={size}", cursor, parameters), bookerId, parameters);
     }
 
-    public ResponseEntity<Object> getAllByOwner(Long ownerId, String state, int from, int size) {
+    public ResponseEntity<Object> getAllByOwner(Long ownerId, String state, int from, int size, String cursor) {
         try {
             State.valueOf(state);
         } catch (IllegalArgumentException e) {
             throw new BadRequestException("Unknown state: " + state);
         }
-        Map<String, Object> parameters = Map.of(
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state,
                 "from", from,
                 "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
+        ));
+        return get(withCursor("/owner?state={state}&from={from}&size={size}", cursor, parameters),
+                ownerId, parameters);
     }
 }
\ No newline at end of file
@@ -7,10 +7,15 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.booking.client.BookingClient;
 import ru.practicum.booking.dto.BookingDto;
+import ru.practicum.booking.dto.BookingStatusChangeDto;
 import ru.practicum.user.ToCreate;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 import static ru.practicum.item.controller.ItemController.HEADER;
 
@@ -34,20 +39,34 @@ public class BookingController {
         return bookingClient.changeStatus(ownerId, bookingId, approved);
     }
 
+    @PatchMapping
+    public ResponseEntity<Object> changeStatuses(@RequestHeader(HEADER) Long ownerId,
+                                                 @RequestBody @NotEmpty @Size(max = 100)
+                                                 List<@Valid BookingStatusChangeDto> changes) {
+        return bookingClient.changeStatuses(ownerId, changes);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBookingById(@RequestHeader(HEADER) Long userId,
                                                  @PathVariable Long bookingId) {
         return bookingClient.getBookingById(userId, bookingId);
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<Object> getBookingsByIds(@RequestHeader(HEADER) Long userId,
+                                                   @RequestParam("ids") List<Long> bookingIds) {
+        return bookingClient.getBookingsByIds(userId, bookingIds);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getAllByBooker(@RequestHeader(HEADER) Long bookerId,
                                                  @RequestParam(defaultValue = "ALL", required = false) String state,
                                                  @PositiveOrZero @RequestParam(value = "from",
                                                          defaultValue = "0", required = false) int from,
                                                  @Positive @RequestParam(value = "size", defaultValue = "10",
-                                                         required = false) int size) {
-        return bookingClient.getAllByBooker(bookerId, state, from, size);
+                                                         required = false) int size,
+                                                 @RequestParam(value = "cursor", required = false) String cursor) {
+        return bookingClient.getAllByBooker(bookerId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
@@ -56,7 +75,8 @@ public class BookingController {
                                                 @PositiveOrZero @RequestParam(value = "from",
                                                         defaultValue = "0", required = false) int from,
                                                 @Positive @RequestParam(value = "size", defaultValue = "10",
-                                                        required = false) int size) {
-        return bookingClient.getAllByOwner(ownerId, state, from, size);
+                                                        required = false) int size,
+                                                @RequestParam(value = "cursor", required = false) String cursor) {
+        return bookingClient.getAllByOwner(ownerId, state, from, size, cursor);
     }
 }
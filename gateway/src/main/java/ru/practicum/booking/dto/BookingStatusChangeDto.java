@@ -0,0 +1,22 @@
+package ru.practicum.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Решение владельца по одной брони в пакетном изменении статусов.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookingStatusChangeDto {
+    @NotNull(message = "Введите id брони")
+    private Long bookingId;
+    @NotNull(message = "Укажите решение по брони")
+    private Boolean approved;
+}
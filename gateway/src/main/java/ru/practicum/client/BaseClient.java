@@ -4,11 +4,15 @@ import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import ru.practicum.exception.BadRequestException;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public class BaseClient {
+    private static final int MAX_IDS = 100;
+
     protected final RestTemplate rest;
 
     public BaseClient(RestTemplate rest) {
@@ -101,6 +105,29 @@ public class BaseClient {
         return headers;
     }
 
+    /**
+     * Добавляет к пути курсор keyset-пагинации, если клиент его передал.
+     */
+    protected static String withCursor(String path, String cursor, Map<String, Object> parameters) {
+        if (cursor == null) {
+            return path;
+        }
+        parameters.put("cursor", cursor);
+        return path + "&cursor={cursor}";
+    }
+
+    /**
+     * Параметры запроса по списку id: сервер принимает их одной строкой через запятую.
+     */
+    protected static Map<String, Object> idsParameter(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_IDS) {
+            throw new BadRequestException(String.format("Укажите от 1 до %d id", MAX_IDS));
+        }
+        return Map.of("ids", ids.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",")));
+    }
+
     private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
         if (response.getStatusCode().is2xxSuccessful()) {
             return response;
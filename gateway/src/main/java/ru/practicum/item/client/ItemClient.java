@@ -1,16 +1,35 @@
 package ru.practicum.item.client;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.client.BaseClient;
+import ru.practicum.exception.BadRequestException;
 import ru.practicum.item.dto.CommentDto;
 import ru.practicum.item.dto.ItemDto;
+import ru.practicum.item.dto.ItemImportResultDto;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -18,20 +37,67 @@ public class ItemClient extends BaseClient {
 
     private static final String API_PREFIX = "/items";
 
+    private final ObjectMapper objectMapper;
+    private final ObjectReader resultReader;
+    private final ObjectWriter resultWriter;
+    private final int importChunkSize;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ObjectMapper objectMapper, @Value("${shareit.item.import.chunk-size:1000}") int importChunkSize) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
                         .build()
         );
+        this.objectMapper = objectMapper;
+        this.resultReader = objectMapper.readerFor(ItemImportResultDto.class);
+        this.resultWriter = objectMapper.writerFor(ItemImportResultDto.class);
+        this.importChunkSize = importChunkSize;
     }
 
     public ResponseEntity<Object> createItem(Long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
+    /**
+     * Пересылает вещи на сервер частями по importChunkSize строк, каждую часть отдельным запросом
+     * с JSON-массивом, и копирует результаты в out со сдвигом номеров строк на начало части.
+     * Так ни шлюз, ни сервер не держат в памяти всю загрузку, а HTTP-клиенту не нужно одновременно
+     * отправлять тело и читать ответ. После ошибки сервера или нечитаемого JSON импорт останавливается.
+     */
+    public void importItems(Long userId, InputStream items, OutputStream out) throws IOException {
+        List<JsonNode> chunk = new ArrayList<>(importChunkSize);
+        int offset = 0;
+        try (MappingIterator<JsonNode> lines = objectMapper.readerFor(JsonNode.class).readValues(items)) {
+            while (true) {
+                try {
+                    if (!lines.hasNextValue()) {
+                        break;
+                    }
+                    chunk.add(lines.nextValue());
+                } catch (JsonProcessingException e) {
+                    if (sendChunk(userId, chunk, offset, out)) {
+                        writeResult(out, ItemImportResultDto.builder()
+                                .line(offset + chunk.size() + 1)
+                                .error("Некорректный JSON, импорт остановлен")
+                                .build());
+                    }
+                    return;
+                }
+                if (chunk.size() == importChunkSize) {
+                    if (!sendChunk(userId, chunk, offset, out)) {
+                        return;
+                    }
+                    offset += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        sendChunk(userId, chunk, offset, out);
+    }
+
     public ResponseEntity<Object> updateItem(Long userId, Long itemId, ItemDto itemDto) {
         return patch("/" + itemId, userId, itemDto);
     }
@@ -40,24 +106,90 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getItems(Long userId, int from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> getItemsByIds(Long userId, List<Long> itemIds) {
+        return get("?ids={ids}", userId, idsParameter(itemIds));
+    }
+
+    public ResponseEntity<Object> getItems(Long userId, int from, int size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&size={size}", userId, parameters);
+        ));
+        return get(withCursor("?from={from}&size={size}", cursor, parameters), userId, parameters);
     }
 
-    public ResponseEntity<Object> searchItem(String text, Long userId, int from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> searchItem(String text, LocalDateTime start, LocalDateTime end,
+                                             Long userId, int from, int size, String cursor) {
+        if ((start == null) != (end == null)) {
+            throw new BadRequestException("Для поиска свободных вещей нужно указать и начало, и окончание");
+        }
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "text", text,
                 "from", from,
                 "size", size
-        );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        ));
+        String path = "/search?text={text}&from={from}&size={size}";
+        if (start != null) {
+            if (!start.isBefore(end)) {
+                throw new BadRequestException("Некорректная дата бронирования");
+            }
+            parameters.put("start", start);
+            parameters.put("end", end);
+            path += "&start={start}&end={end}";
+        }
+        return get(withCursor(path, cursor, parameters), userId, parameters);
     }
 
     public ResponseEntity<Object> createComment(Long userId, Long itemId, CommentDto commentDto) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
+
+    private boolean sendChunk(Long userId, List<JsonNode> chunk, int offset, OutputStream out) throws IOException {
+        if (chunk.isEmpty()) {
+            return true;
+        }
+        try {
+            rest.execute("/bulk", HttpMethod.POST, request -> {
+                HttpHeaders headers = request.getHeaders();
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+                headers.set("X-Sharer-User-Id", String.valueOf(userId));
+                request.getBody().write(objectMapper.writeValueAsBytes(chunk));
+            }, response -> {
+                try (MappingIterator<ItemImportResultDto> results = resultReader.readValues(response.getBody())) {
+                    while (results.hasNextValue()) {
+                        ItemImportResultDto result = results.nextValue();
+                        result.setLine(result.getLine() + offset);
+                        writeResult(out, result);
+                    }
+                }
+                return null;
+            });
+        } catch (HttpStatusCodeException e) {
+            String error = errorMessage(e);
+            for (int line = 1; line <= chunk.size(); line++) {
+                writeResult(out, ItemImportResultDto.builder().line(offset + line).error(error).build());
+            }
+            return false;
+        }
+        out.flush();
+        return true;
+    }
+
+    private void writeResult(OutputStream out, ItemImportResultDto result) throws IOException {
+        out.write(resultWriter.writeValueAsBytes(result));
+        out.write('\n');
+    }
+
+    private String errorMessage(HttpStatusCodeException e) {
+        try {
+            JsonNode error = objectMapper.readTree(e.getResponseBodyAsByteArray()).get("error");
+            if (error != null) {
+                return error.asText();
+            }
+        } catch (IOException ignored) {
+            // тело ответа не JSON, отдаем статус
+        }
+        return e.getStatusText();
+    }
 }
@@ -1,9 +1,12 @@
 package ru.practicum.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.item.client.ItemClient;
 import ru.practicum.item.dto.CommentDto;
 import ru.practicum.item.dto.ItemDto;
@@ -11,6 +14,9 @@ import ru.practicum.user.ToCreate;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -26,6 +32,15 @@ public class ItemController {
         return itemClient.createItem(userId, itemDto);
     }
 
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importItems(@RequestHeader(HEADER) Long userId, InputStream items) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> itemClient.importItems(userId, items, out));
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(@RequestHeader(HEADER) Long userId, @PathVariable("itemId") Long itemId,
                                              @RequestBody ItemDto itemDto) {
@@ -38,23 +53,35 @@ public class ItemController {
         return itemClient.getItemById(userId, itemId);
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<Object> getItemsByIds(@RequestHeader(HEADER) Long userId,
+                                                @RequestParam("ids") List<Long> itemIds) {
+        return itemClient.getItemsByIds(userId, itemIds);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getItems(@RequestHeader(HEADER) Long userId,
                                            @PositiveOrZero @RequestParam(value = "from",
                                                    defaultValue = "0", required = false) int from,
                                            @Positive @RequestParam(value = "size", defaultValue = "10",
-                                                   required = false) int size) {
-        return itemClient.getItems(userId, from, size);
+                                                   required = false) int size,
+                                           @RequestParam(value = "cursor", required = false) String cursor) {
+        return itemClient.getItems(userId, from, size, cursor);
     }
 
     @GetMapping("/search")
     public ResponseEntity<Object> searchItem(@RequestHeader(HEADER) Long userId,
                                              @RequestParam String text,
+                                             @RequestParam(value = "start", required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                             @RequestParam(value = "end", required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
                                              @PositiveOrZero @RequestParam(value = "from",
                                                      defaultValue = "0", required = false) int from,
                                              @Positive @RequestParam(value = "size", defaultValue = "10",
-                                                     required = false) int size) {
-        return itemClient.searchItem(text, userId, from, size);
+                                                     required = false) int size,
+                                             @RequestParam(value = "cursor", required = false) String cursor) {
+        return itemClient.searchItem(text, start, end, userId, from, size, cursor);
     }
 
     @PostMapping("/{itemId}/comment")
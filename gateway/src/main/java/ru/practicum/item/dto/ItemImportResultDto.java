@@ -0,0 +1,20 @@
+package ru.practicum.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат импорта одной вещи: номер строки во входном потоке (с единицы) и id сохраненной вещи
+ * либо текст ошибки.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ItemImportResultDto {
+    private int line;
+    private Long id;
+    private String error;
+}
@@ -28,8 +28,15 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getItemRequests(@RequestHeader(HEADER) Long userId) {
-        return itemRequestClient.getItemRequests(userId);
+    public ResponseEntity<Object> getItemRequests(@RequestHeader(HEADER) Long userId,
+                                                  @PositiveOrZero @RequestParam(value = "from",
+                                                          defaultValue = "0", required = false) int from,
+                                                  @Positive @RequestParam(value = "size",
+                                                          required = false) Integer size) {
+        if (size == null) {
+            return itemRequestClient.getItemRequests(userId);
+        }
+        return itemRequestClient.getItemRequests(userId, from, size);
     }
 
     @GetMapping("/all")
@@ -37,8 +44,9 @@ public class ItemRequestController {
                                                      @PositiveOrZero @RequestParam(value = "from",
                                                              defaultValue = "0", required = false) int from,
                                                      @Positive @RequestParam(value = "size", defaultValue = "10",
-                                                             required = false) int size) {
-        return itemRequestClient.getAllItemRequests(userId, from, size);
+                                                             required = false) int size,
+                                                     @RequestParam(value = "cursor", required = false) String cursor) {
+        return itemRequestClient.getAllItemRequests(userId, from, size, cursor);
     }
 
     @GetMapping("/{requestId}")
@@ -3,13 +3,21 @@ package ru.practicum.user.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.client.BaseClient;
 import ru.practicum.user.dto.UserDto;
 
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
 
@@ -29,6 +37,20 @@ public class UserClient extends BaseClient {
         return get("");
     }
 
+    public ResponseEntity<Object> getUsers(int size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of("size", size));
+        return get(withCursor("?size={size}", cursor, parameters), null, parameters);
+    }
+
+    /**
+     * Копирует NDJSON-поток сервера в out по мере чтения, не разбирая и не накапливая ответ.
+     */
+    public void streamUsers(OutputStream out) {
+        rest.execute("/stream", HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON)),
+                response -> StreamUtils.copy(response.getBody(), out));
+    }
+
     public ResponseEntity<Object> createUser(UserDto userDto) {
         return post("", userDto);
     }
@@ -41,6 +63,10 @@ public class UserClient extends BaseClient {
         return get("/" + userId);
     }
 
+    public ResponseEntity<Object> getUsersByIds(List<Long> userIds) {
+        return get("?ids={ids}", null, idsParameter(userIds));
+    }
+
     public void deleteUserById(Long userId) {
         delete("/" + userId);
     }
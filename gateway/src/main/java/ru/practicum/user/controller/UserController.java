@@ -1,14 +1,20 @@
 package ru.practicum.user.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.user.ToCreate;
 import ru.practicum.user.ToUpdate;
 import ru.practicum.user.client.UserClient;
 import ru.practicum.user.dto.UserDto;
 
+import javax.validation.constraints.Positive;
+import java.util.List;
+
+@Validated
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/users")
@@ -16,8 +22,19 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> getUsers() {
-        return userClient.getUsers();
+    public ResponseEntity<Object> getUsers(@Positive @RequestParam(value = "size", required = false) Integer size,
+                                           @RequestParam(value = "cursor", required = false) String cursor) {
+        if (size == null && cursor == null) {
+            return userClient.getUsers();
+        }
+        return userClient.getUsers(size == null ? 10 : size, cursor);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userClient::streamUsers);
     }
 
     @PostMapping
@@ -35,6 +52,11 @@ public class UserController {
         return userClient.getUserById(userId);
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<Object> getUsersByIds(@RequestParam("ids") List<Long> userIds) {
+        return userClient.getUsersByIds(userIds);
+    }
+
     @DeleteMapping("/{userId}")
     public void deleteUserById(@PathVariable Long userId) {
         userClient.deleteUserById(userId);
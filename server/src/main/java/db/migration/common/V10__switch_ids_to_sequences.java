@@ -0,0 +1,54 @@
+package db.migration.common;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Переводит первичные ключи с IDENTITY на последовательности с шагом id-allocation-size (плейсхолдер Flyway),
+ * чтобы Hibernate выделял идентификаторы пачками и мог группировать вставки в JDBC batch.
+ * Последовательность начинается после текущего максимального id, а значение по умолчанию у столбца
+ * берётся из неё же, поэтому вставки в обход Hibernate не пересекаются с выделенными пачками.
+ */
+@SuppressWarnings("checkstyle:TypeName")
+public class V10__switch_ids_to_sequences extends BaseJavaMigration {
+
+    private static final String ALLOCATION_SIZE_PLACEHOLDER = "id-allocation-size";
+    private static final String DEFAULT_ALLOCATION_SIZE = "50";
+    private static final String[][] ID_COLUMNS = {
+            {"users", "user_id", "users_seq"},
+            {"requests", "request_id", "requests_seq"},
+            {"items", "item_id", "items_seq"},
+            {"bookings", "booking_id", "bookings_seq"},
+            {"comments", "comment_id", "comments_seq"}
+    };
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        long allocationSize = Long.parseLong(context.getConfiguration().getPlaceholders()
+                .getOrDefault(ALLOCATION_SIZE_PLACEHOLDER, DEFAULT_ALLOCATION_SIZE));
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            for (String[] idColumn : ID_COLUMNS) {
+                String table = idColumn[0];
+                String column = idColumn[1];
+                String sequence = idColumn[2];
+                long start;
+                try (ResultSet max = statement.executeQuery("select coalesce(max(" + column + "), 0) + 1 from "
+                        + table)) {
+                    max.next();
+                    start = max.getLong(1);
+                }
+                statement.execute("create sequence " + sequence + " start with " + start
+                        + " increment by " + allocationSize);
+                statement.execute("alter table " + table + " alter column " + column + " drop identity");
+                statement.execute("alter table " + table + " alter column " + column
+                        + " set default nextval('" + sequence + "')");
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package db.migration.common;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Заполняет bookings.owner_id по items.owner_id диапазонами booking_id по BATCH_SIZE строк.
+ * Каждая пачка фиксируется отдельно, чтобы не держать блокировки на всей таблице.
+ */
+@SuppressWarnings("checkstyle:TypeName")
+public class V7__backfill_bookings_owner_id extends BaseJavaMigration {
+
+    private static final long BATCH_SIZE = 10_000;
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        long minId;
+        long maxId;
+        try (Statement statement = connection.createStatement();
+             ResultSet range = statement.executeQuery("select min(booking_id), max(booking_id) from bookings")) {
+            range.next();
+            minId = range.getLong(1);
+            maxId = range.getLong(2);
+            if (range.wasNull()) {
+                return;
+            }
+        }
+
+        try (PreparedStatement update = connection.prepareStatement("update bookings set owner_id = " +
+                "(select i.owner_id from items i where i.item_id = bookings.item_id) " +
+                "where booking_id between ? and ? and owner_id is null")) {
+            for (long from = minId; from <= maxId; from += BATCH_SIZE) {
+                update.setLong(1, from);
+                update.setLong(2, from + BATCH_SIZE - 1);
+                update.executeUpdate();
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+            }
+        }
+    }
+}
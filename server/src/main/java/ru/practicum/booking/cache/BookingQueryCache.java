@@ -0,0 +1,111 @@
+package ru.practicum.booking.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.booking.model.State;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кратковременный кэш результатов выборок бронирований по состоянию. Ключ содержит момент времени,
+ * округленный до секунды, поэтому одинаковые запросы в пределах секунды обслуживаются одним обращением к БД.
+ * Записи пользователя сбрасываются после коммита создания и изменения статуса его бронирований на этом узле:
+ * у пользователя меняется поколение, входящее в ключ, и старые записи больше не читаются, а вытесняются по ttl.
+ * Изменения на других узлах становятся видны не позже чем через ttl.
+ */
+@Component
+public class BookingQueryCache {
+
+    private final Cache<Key, Object> cache;
+    // Поколение пользователя живет дольше записей, иначе после его вытеснения снова читались бы старые записи
+    private final Cache<Long, Long> generations;
+    private final AtomicLong nextGeneration = new AtomicLong();
+    private final boolean enabled;
+
+    public BookingQueryCache(MeterRegistry meterRegistry,
+                             @Value("${shareit.booking.cache.ttl:1s}") Duration ttl) {
+        this.enabled = !ttl.isZero();
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(10_000)
+                .recordStats()
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .expireAfterWrite(ttl.multipliedBy(2))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "shareit.booking.state");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Long generation = generations.getIfPresent(key.getUserId());
+        return (T) cache.get(key.withGeneration(generation == null ? 0 : generation), k -> loader.get());
+    }
+
+    /**
+     * Сбрасывает выборки пользователя. Внутри транзакции сброс выполняется после коммита, чтобы чтение
+     * до коммита не закэшировало прежний список заново.
+     */
+    public void evictUser(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generations.put(userId, nextGeneration.incrementAndGet());
+                }
+            });
+        } else {
+            generations.put(userId, nextGeneration.incrementAndGet());
+        }
+    }
+
+    public static Key ofBooker(Long bookerId, State state, LocalDateTime now, int from, int size, String cursor) {
+        return new Key(false, bookerId, state, now, from, size, cursor, false, 0);
+    }
+
+    public static Key ofOwner(Long ownerId, State state, LocalDateTime now, int from, int size, String cursor) {
+        return new Key(true, ownerId, state, now, from, size, cursor, false, 0);
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static final class Key {
+        private final boolean owner;
+        private final Long userId;
+        private final State state;
+        private final LocalDateTime now;
+        private final int from;
+        private final int size;
+        private final String cursor;
+        private final boolean shortView;
+        private final long generation;
+
+        // Ключ того же запроса для списка BookingShortDto
+        public Key shortView() {
+            return new Key(owner, userId, state, now, from, size, cursor, true, generation);
+        }
+
+        private Key withGeneration(long generation) {
+            return new Key(owner, userId, state, now, from, size, cursor, shortView, generation);
+        }
+    }
+}
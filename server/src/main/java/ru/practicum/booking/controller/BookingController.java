@@ -1,12 +1,19 @@
 package ru.practicum.booking.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.booking.dto.BookingDto;
 import ru.practicum.booking.dto.BookingOutputDto;
+import ru.practicum.booking.dto.BookingStatusChangeDto;
+import ru.practicum.booking.dto.BookingStatusResultDto;
+import ru.practicum.booking.dto.BookingView;
 import ru.practicum.booking.model.State;
 import ru.practicum.booking.service.BookingService;
+import ru.practicum.pagination.CursorPage;
 
+import java.util.Collections;
 import java.util.List;
 
 import static ru.practicum.item.controller.ItemController.HEADER;
@@ -17,6 +24,11 @@ import static ru.practicum.item.controller.ItemController.HEADER;
 public class BookingController {
     private final BookingService bookingService;
 
+    // По умолчанию списки возвращают прежний BookingOutputDto с сущностями вещи и автора целиком;
+    // true переключает их на BookingShortDto, клиенты должны быть готовы к сокращенному JSON
+    @Value("${shareit.booking.list.slim:false}")
+    private boolean slimList;
+
     @PostMapping
     public BookingOutputDto addBooking(@RequestHeader(HEADER) Long bookerId,
                                        @RequestBody BookingDto bookingDto) {
@@ -30,29 +42,66 @@ public class BookingController {
         return bookingService.changeStatus(ownerId, bookingId, approved);
     }
 
+    @PatchMapping
+    public List<BookingStatusResultDto> changeStatuses(@RequestHeader(HEADER) Long ownerId,
+                                                       @RequestBody List<BookingStatusChangeDto> changes) {
+        return bookingService.changeStatuses(ownerId, changes);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingOutputDto getBookingById(@RequestHeader(HEADER) Long userId,
                                            @PathVariable Long bookingId) {
         return bookingService.getBookingById(userId, bookingId);
     }
 
+    @GetMapping(params = "ids")
+    public List<BookingOutputDto> getBookingsByIds(@RequestHeader(HEADER) Long userId,
+                                                   @RequestParam("ids") List<Long> bookingIds) {
+        return bookingService.getBookingsByIds(userId, bookingIds);
+    }
+
     @GetMapping
-    public List<BookingOutputDto> getAllByBooker(@RequestHeader(HEADER) Long bookerId,
-                                                 @RequestParam(defaultValue = "ALL", required = false) State state,
-                                                 @RequestParam(value = "from",
-                                                         defaultValue = "0", required = false) int from,
-                                                 @RequestParam(value = "size", defaultValue = "10",
-                                                         required = false) int size) {
-        return bookingService.getAllByBooker(bookerId, state, from, size);
+    public ResponseEntity<List<BookingView>> getAllByBooker(@RequestHeader(HEADER) Long bookerId,
+                                                            @RequestParam(defaultValue = "ALL",
+                                                                    required = false) State state,
+                                                            @RequestParam(value = "from",
+                                                                    defaultValue = "0", required = false) int from,
+                                                            @RequestParam(value = "size", defaultValue = "10",
+                                                                    required = false) int size,
+                                                            @RequestParam(value = "cursor",
+                                                                    required = false) String cursor) {
+        if (cursor != null) {
+            return toResponseEntity(slimList
+                    ? bookingService.getShortByBooker(bookerId, state, cursor, size)
+                    : bookingService.getAllByBooker(bookerId, state, cursor, size));
+        }
+        return ResponseEntity.ok(Collections.unmodifiableList(slimList
+                ? bookingService.getShortByBooker(bookerId, state, from, size)
+                : bookingService.getAllByBooker(bookerId, state, from, size)));
     }
 
     @GetMapping("/owner")
-    public List<BookingOutputDto> getAllByOwner(@RequestHeader(HEADER) Long ownerId,
-                                                @RequestParam(defaultValue = "ALL", required = false) State state,
-                                                @RequestParam(value = "from",
-                                                        defaultValue = "0", required = false) int from,
-                                                @RequestParam(value = "size", defaultValue = "10",
-                                                        required = false) int size) {
-        return bookingService.getAllByOwner(ownerId, state, from, size);
+    public ResponseEntity<List<BookingView>> getAllByOwner(@RequestHeader(HEADER) Long ownerId,
+                                                           @RequestParam(defaultValue = "ALL",
+                                                                   required = false) State state,
+                                                           @RequestParam(value = "from",
+                                                                   defaultValue = "0", required = false) int from,
+                                                           @RequestParam(value = "size", defaultValue = "10",
+                                                                   required = false) int size,
+                                                           @RequestParam(value = "cursor",
+                                                                   required = false) String cursor) {
+        if (cursor != null) {
+            return toResponseEntity(slimList
+                    ? bookingService.getShortByOwner(ownerId, state, cursor, size)
+                    : bookingService.getAllByOwner(ownerId, state, cursor, size));
+        }
+        return ResponseEntity.ok(Collections.unmodifiableList(slimList
+                ? bookingService.getShortByOwner(ownerId, state, from, size)
+                : bookingService.getAllByOwner(ownerId, state, from, size)));
+    }
+
+    private static ResponseEntity<List<BookingView>> toResponseEntity(CursorPage<? extends BookingView> page) {
+        return new CursorPage<BookingView>(Collections.unmodifiableList(page.getContent()), page.getNextCursor())
+                .toResponseEntity();
     }
 }
@@ -14,7 +14,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class BookingOutputDto {
+public class BookingOutputDto implements BookingView {
     private Long id;
     private LocalDateTime start;
     private LocalDateTime end;
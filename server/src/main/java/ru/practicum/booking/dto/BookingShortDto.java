@@ -0,0 +1,47 @@
+package ru.practicum.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.booking.model.Status;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронирование в списках: вместо сущностей вещи и автора только поля, которые нужны клиенту.
+ * JSON совпадает с BookingOutputDto по путям item.id, item.name и booker.id.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookingShortDto implements BookingView {
+    private Long id;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private ItemRef item;
+    private BookerRef booker;
+    private Status status;
+
+    // Конструктор для выражения select new в BookingFilterRepositoryImpl
+    public BookingShortDto(Long id, LocalDateTime start, LocalDateTime end, Status status,
+                           Long itemId, String itemName, Long bookerId) {
+        this(id, start, end, new ItemRef(itemId, itemName), new BookerRef(bookerId), status);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ItemRef {
+        private Long id;
+        private String name;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class BookerRef {
+        private Long id;
+    }
+}
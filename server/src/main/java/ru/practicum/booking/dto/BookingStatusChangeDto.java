@@ -0,0 +1,18 @@
+package ru.practicum.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Решение владельца по одной брони в пакетном изменении статусов.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookingStatusChangeDto {
+    private Long bookingId;
+    private Boolean approved;
+}
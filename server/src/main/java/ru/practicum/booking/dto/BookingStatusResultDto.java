@@ -0,0 +1,20 @@
+package ru.practicum.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.booking.model.Status;
+
+/**
+ * Итог пакетного изменения статуса одной брони: текущий статус и текст ошибки, если решение не применено.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookingStatusResultDto {
+    private Long bookingId;
+    private Status status;
+    private String error;
+}
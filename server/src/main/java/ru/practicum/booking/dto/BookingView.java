@@ -0,0 +1,13 @@
+package ru.practicum.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронирование в списках: BookingOutputDto или, при shareit.booking.list.slim=true, BookingShortDto.
+ * Поля id и start задают порядок списка и курсор следующей страницы.
+ */
+public interface BookingView {
+    Long getId();
+
+    LocalDateTime getStart();
+}
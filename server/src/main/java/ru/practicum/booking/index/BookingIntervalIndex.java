@@ -0,0 +1,305 @@
+package ru.practicum.booking.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.booking.dto.BookingDateDto;
+import ru.practicum.booking.model.Booking;
+import ru.practicum.booking.model.Status;
+import ru.practicum.booking.repository.BookingIntervalProjection;
+import ru.practicum.booking.repository.BookingRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Подтвержденные бронирования по вещам для проверки занятости и поиска последнего и следующего
+ * бронирования без обращения к БД. Включается свойством shareit.booking.index.enabled, строится из БД
+ * при старте и обновляется после коммита создания и изменения статуса бронирований на этом узле.
+ * Подтверждения с других узлов индекс не видит, поэтому бронирования вещи перечитываются из БД при первом
+ * обращении после shareit.booking.index.refresh-interval. Нулевой интервал отключает перечитывание
+ * и допустим только при одном узле.
+ */
+@Component
+@Slf4j
+public class BookingIntervalIndex {
+
+    private static final long MICROS_PER_SECOND = 1_000_000;
+    private static final long NANOS_PER_MICRO = 1_000;
+    private static final long HASH_ENTRY_OVERHEAD = 48;
+    private static final long OBJECT_OVERHEAD = 32;
+    private static final long ARRAY_OVERHEAD = 16;
+
+    private final BookingRepository bookingRepository;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Duration refreshInterval;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ItemIntervals> items = new HashMap<>();
+    private final Set<Long> updatedDuringRebuild = new HashSet<>();
+    // Когда бронирования вещи последний раз читались из БД; вещи без записи - с момента построения
+    private final Map<Long, Instant> refreshedAt = new HashMap<>();
+    // Число изменений вещи на этом узле: перечитанное до изменения состояние не должно его затереть
+    private final Map<Long, Long> versions = new HashMap<>();
+    private volatile Instant builtAt;
+    private volatile boolean ready;
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                MeterRegistry meterRegistry,
+                                Clock clock,
+                                @Value("${shareit.booking.index.enabled:false}") boolean enabled,
+                                @Value("${shareit.booking.index.refresh-interval:5s}") Duration refreshInterval) {
+        this.bookingRepository = bookingRepository;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.refreshInterval = refreshInterval;
+        Gauge.builder("shareit.booking.index.memory", this, BookingIntervalIndex::memoryBytes)
+                .description("Примерный объем памяти, занятый индексом подтвержденных бронирований")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("shareit.booking.index.bookings", this, BookingIntervalIndex::size)
+                .description("Количество подтвержденных бронирований в индексе")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Построение индекса подтвержденных бронирований");
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            items.clear();
+            updatedDuringRebuild.clear();
+            refreshedAt.clear();
+            versions.clear();
+            builtAt = clock.instant();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try (Stream<BookingIntervalProjection> bookings = bookingRepository.streamAllByStatus(Status.APPROVED)) {
+            bookings.forEach(booking -> {
+                lock.writeLock().lock();
+                try {
+                    if (!updatedDuringRebuild.contains(booking.getId())) {
+                        add(booking.getItemId(), booking.getId(), booking.getBookerId(),
+                                booking.getStart(), booking.getEnd());
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        }
+
+        lock.writeLock().lock();
+        try {
+            updatedDuringRebuild.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info(String.format("Индекс бронирований построен: %d бронирований, около %d байт", size(), memoryBytes()));
+    }
+
+    /**
+     * Переносит в индекс текущий статус брони. Внутри транзакции изменение применяется только после коммита,
+     * чтобы откаченное подтверждение не занимало даты вещи.
+     */
+    public void update(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        Long itemId = booking.getItem().getId();
+        Long bookingId = booking.getId();
+        Long bookerId = booking.getBooker().getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        boolean approved = booking.getStatus() == Status.APPROVED;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(itemId, bookingId, bookerId, start, end, approved);
+                }
+            });
+        } else {
+            apply(itemId, bookingId, bookerId, start, end, approved);
+        }
+    }
+
+    private void apply(Long itemId, Long bookingId, Long bookerId, LocalDateTime start, LocalDateTime end,
+                       boolean approved) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                updatedDuringRebuild.add(bookingId);
+            }
+            versions.merge(itemId, 1L, Long::sum);
+            ItemIntervals intervals = items.get(itemId);
+            if (intervals != null && intervals.remove(bookingId) && intervals.size() == 0) {
+                items.remove(itemId);
+            }
+            if (approved) {
+                add(itemId, bookingId, bookerId, start, end);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Проверяет, есть ли у вещи подтвержденное бронирование, пересекающееся с интервалом [start, end).
+     */
+    public boolean isBooked(Long itemId, LocalDateTime start, LocalDateTime end) {
+        refreshIfStale(itemId);
+        lock.readLock().lock();
+        try {
+            ItemIntervals intervals = items.get(itemId);
+            return intervals != null && intervals.overlaps(toMicros(start), toMicros(end));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Последнее подтвержденное бронирование вещи, закончившееся до now, или null.
+     */
+    public BookingDateDto getLastBooking(Long itemId, LocalDateTime now) {
+        refreshIfStale(itemId);
+        lock.readLock().lock();
+        try {
+            ItemIntervals intervals = items.get(itemId);
+            return intervals == null ? null : toBookingDateDto(intervals, intervals.last(toMicros(now)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ближайшее подтвержденное бронирование вещи, заканчивающееся после now, или null.
+     */
+    public BookingDateDto getNextBooking(Long itemId, LocalDateTime now) {
+        refreshIfStale(itemId);
+        lock.readLock().lock();
+        try {
+            ItemIntervals intervals = items.get(itemId);
+            return intervals == null ? null : toBookingDateDto(intervals, intervals.next(toMicros(now)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            int size = 0;
+            for (ItemIntervals intervals : items.values()) {
+                size += intervals.size();
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (ItemIntervals intervals : items.values()) {
+                bytes += HASH_ENTRY_OVERHEAD + OBJECT_OVERHEAD + ARRAY_OVERHEAD + Long.BYTES * intervals.capacity();
+            }
+            return bytes + (HASH_ENTRY_OVERHEAD + 2 * OBJECT_OVERHEAD) * (refreshedAt.size() + versions.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Перечитывает бронирования вещи, если они старше refreshInterval, и заменяет ими срез индекса.
+    private void refreshIfStale(Long itemId) {
+        if (refreshInterval.isZero()) {
+            return;
+        }
+        Instant now = clock.instant();
+        long version;
+        lock.readLock().lock();
+        try {
+            Instant loadedAt = refreshedAt.getOrDefault(itemId, builtAt);
+            if (loadedAt == null || now.isBefore(loadedAt.plus(refreshInterval))) {
+                return;
+            }
+            version = versions.getOrDefault(itemId, 0L);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<BookingIntervalProjection> bookings = bookingRepository.findIntervalsByItemIdAndStatus(itemId,
+                Status.APPROVED);
+        lock.writeLock().lock();
+        try {
+            if (versions.getOrDefault(itemId, 0L) != version) {
+                // Бронь вещи изменилась на этом узле во время чтения: перечитаем при следующем обращении
+                return;
+            }
+            items.remove(itemId);
+            for (BookingIntervalProjection booking : bookings) {
+                add(itemId, booking.getId(), booking.getBookerId(), booking.getStart(), booking.getEnd());
+            }
+            refreshedAt.put(itemId, now);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Long itemId, Long bookingId, Long bookerId, LocalDateTime start, LocalDateTime end) {
+        items.computeIfAbsent(itemId, id -> new ItemIntervals())
+                .add(toMicros(start), toMicros(end), bookingId, bookerId);
+    }
+
+    private static BookingDateDto toBookingDateDto(ItemIntervals intervals, int index) {
+        if (index < 0) {
+            return null;
+        }
+        return BookingDateDto.builder()
+                .id(intervals.bookingId(index))
+                .start(fromMicros(intervals.start(index)))
+                .end(fromMicros(intervals.end(index)))
+                .bookerId(intervals.bookerId(index))
+                .build();
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + time.getNano() / NANOS_PER_MICRO;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                (int) (Math.floorMod(micros, MICROS_PER_SECOND) * NANOS_PER_MICRO), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.booking.index;
+
+import java.util.Arrays;
+
+/**
+ * Подтвержденные бронирования одной вещи, упорядоченные по окончанию.
+ * Каждое бронирование занимает четыре ячейки массива: окончание, начало, id брони и id автора.
+ * Время хранится в микросекундах от эпохи.
+ */
+final class ItemIntervals {
+
+    static final int STRIDE = 4;
+    private static final int END = 0;
+    private static final int START = 1;
+    private static final int BOOKING_ID = 2;
+    private static final int BOOKER_ID = 3;
+
+    private long[] data = new long[STRIDE];
+    private int size;
+
+    void add(long start, long end, long bookingId, long bookerId) {
+        int index = firstEndAfter(end - 1);
+        while (index < size && data[index * STRIDE + END] == end && data[index * STRIDE + BOOKING_ID] < bookingId) {
+            index++;
+        }
+        if ((size + 1) * STRIDE > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        System.arraycopy(data, index * STRIDE, data, (index + 1) * STRIDE, (size - index) * STRIDE);
+        int offset = index * STRIDE;
+        data[offset + END] = end;
+        data[offset + START] = start;
+        data[offset + BOOKING_ID] = bookingId;
+        data[offset + BOOKER_ID] = bookerId;
+        size++;
+    }
+
+    boolean remove(long bookingId) {
+        for (int i = 0; i < size; i++) {
+            if (data[i * STRIDE + BOOKING_ID] == bookingId) {
+                System.arraycopy(data, (i + 1) * STRIDE, data, i * STRIDE, (size - i - 1) * STRIDE);
+                size--;
+                if (size * STRIDE * 4 <= data.length && data.length > STRIDE) {
+                    data = Arrays.copyOf(data, data.length / 2);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Подтвержденные бронирования одной вещи не пересекаются, поэтому при упорядочивании
+     * по окончанию начала тоже упорядочены: достаточно проверить первое бронирование,
+     * закончившееся позже start.
+     */
+    boolean overlaps(long start, long end) {
+        int index = firstEndAfter(start);
+        return index < size && data[index * STRIDE + START] < end;
+    }
+
+    /**
+     * Позиция последнего бронирования, закончившегося до now, или -1.
+     */
+    int last(long now) {
+        return firstEndAfter(now - 1) - 1;
+    }
+
+    /**
+     * Позиция первого бронирования, заканчивающегося после now, или -1.
+     */
+    int next(long now) {
+        int index = firstEndAfter(now);
+        return index < size ? index : -1;
+    }
+
+    long start(int index) {
+        return data[index * STRIDE + START];
+    }
+
+    long end(int index) {
+        return data[index * STRIDE + END];
+    }
+
+    long bookingId(int index) {
+        return data[index * STRIDE + BOOKING_ID];
+    }
+
+    long bookerId(int index) {
+        return data[index * STRIDE + BOOKER_ID];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return data.length;
+    }
+
+    private int firstEndAfter(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (data[middle * STRIDE + END] > time) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -4,6 +4,7 @@ import lombok.Data;
 import ru.practicum.booking.dto.BookingDateDto;
 import ru.practicum.booking.dto.BookingDto;
 import ru.practicum.booking.dto.BookingOutputDto;
+import ru.practicum.booking.dto.BookingShortDto;
 import ru.practicum.booking.model.Booking;
 import ru.practicum.item.model.Item;
 import ru.practicum.user.model.User;
@@ -19,6 +20,7 @@ public class BookingMapper {
                 .item(item)
                 .booker(user)
                 .status(bookingDto.getStatus())
+                .ownerId(item.getOwner().getId())
                 .build();
     }
 
@@ -33,6 +35,11 @@ public class BookingMapper {
                 .build();
     }
 
+    public static BookingShortDto toBookingShortDto(Booking booking) {
+        return new BookingShortDto(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                booking.getItem().getId(), booking.getItem().getName(), booking.getBooker().getId());
+    }
+
     public static BookingDateDto toBookingDateDto(Booking booking) {
         return BookingDateDto.builder()
                 .id(booking.getId())
@@ -0,0 +1,38 @@
+package ru.practicum.booking.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+import ru.practicum.booking.model.State;
+
+import java.time.LocalDateTime;
+
+/**
+ * Условия выборки бронирований для BookingFilterRepository.findByFilter.
+ * Обязательны роль, пользователь и состояние, остальные условия применяются, только если заданы.
+ */
+@Getter
+@Builder
+public class BookingFilter {
+
+    public enum Role {
+        BOOKER,
+        OWNER
+    }
+
+    private final Role role;
+    private final Long userId;
+    private final State state;
+    private final LocalDateTime now;
+    private final Long itemId;
+    // Окно дат: бронирования, пересекающиеся с [rangeStart, rangeEnd)
+    private final LocalDateTime rangeStart;
+    private final LocalDateTime rangeEnd;
+    @Builder.Default
+    private final Sort.Direction direction = Sort.Direction.DESC;
+    // Курсор: бронирования после брони с началом afterStart и id afterId в порядке direction
+    private final LocalDateTime afterStart;
+    private final Long afterId;
+    private final int offset;
+    private final int limit;
+}
@@ -0,0 +1,22 @@
+package ru.practicum.booking.repository;
+
+import ru.practicum.booking.dto.BookingShortDto;
+import ru.practicum.booking.model.Booking;
+
+import java.util.List;
+
+public interface BookingFilterRepository {
+
+    /**
+     * Бронирования, отобранные фильтром, в порядке (start, id) по направлению filter.direction.
+     * Для каждой роли строится запрос одного вида: по booker_id для автора бронирования
+     * и по bookings.owner_id для владельца вещей.
+     */
+    List<Booking> findByFilter(BookingFilter filter);
+
+    /**
+     * То же, что findByFilter, но одним запросом только по колонкам BookingShortDto:
+     * из items читаются id и название, users не затрагивается.
+     */
+    List<BookingShortDto> findShortByFilter(BookingFilter filter);
+}
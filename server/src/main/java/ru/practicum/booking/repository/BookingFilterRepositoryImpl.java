@@ -0,0 +1,105 @@
+package ru.practicum.booking.repository;
+
+import org.springframework.data.domain.Sort;
+import ru.practicum.booking.dto.BookingShortDto;
+import ru.practicum.booking.model.Booking;
+import ru.practicum.booking.model.Status;
+import ru.practicum.exception.BadRequestException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BookingFilterRepositoryImpl implements BookingFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Booking> findByFilter(BookingFilter filter) {
+        return find(filter, Booking.class, "select b from Booking b " +
+                "join fetch b.item i " +
+                "join fetch i.owner " +
+                "left join fetch i.itemRequest r " +
+                "left join fetch r.requestor " +
+                "join fetch b.booker ");
+    }
+
+    @Override
+    public List<BookingShortDto> findShortByFilter(BookingFilter filter) {
+        return find(filter, BookingShortDto.class, "select new ru.practicum.booking.dto.BookingShortDto(" +
+                "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) from Booking b " +
+                "join b.item i ");
+    }
+
+    private <T> List<T> find(BookingFilter filter, Class<T> resultClass, String select) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder jpql = new StringBuilder(select);
+        // Автор: IX_BOOKINGS_BOOKER_START / IX_BOOKINGS_BOOKER_STATUS_START,
+        // владелец: IX_BOOKINGS_OWNER_START / IX_BOOKINGS_OWNER_STATUS_START без соединения с items
+        if (filter.getRole() == BookingFilter.Role.BOOKER) {
+            jpql.append("where b.booker.id = :userId");
+        } else {
+            jpql.append("where b.ownerId = :userId");
+        }
+        parameters.put("userId", filter.getUserId());
+
+        switch (filter.getState()) {
+            case ALL:
+                break;
+            case CURRENT:
+                jpql.append(" and b.start <= :now and b.end >= :now");
+                parameters.put("now", filter.getNow());
+                break;
+            case PAST:
+                jpql.append(" and b.end < :now");
+                parameters.put("now", filter.getNow());
+                break;
+            case FUTURE:
+                jpql.append(" and b.start > :now");
+                parameters.put("now", filter.getNow());
+                break;
+            case WAITING:
+            case REJECTED:
+                jpql.append(" and b.status = :status");
+                parameters.put("status", Status.valueOf(filter.getState().name()));
+                break;
+            default:
+                throw new BadRequestException("Unknown state: UNSUPPORTED_STATUS");
+        }
+
+        if (filter.getItemId() != null) {
+            jpql.append(" and b.item.id = :itemId");
+            parameters.put("itemId", filter.getItemId());
+        }
+        if (filter.getRangeStart() != null) {
+            jpql.append(" and b.end > :rangeStart");
+            parameters.put("rangeStart", filter.getRangeStart());
+        }
+        if (filter.getRangeEnd() != null) {
+            jpql.append(" and b.start < :rangeEnd");
+            parameters.put("rangeEnd", filter.getRangeEnd());
+        }
+
+        boolean descending = filter.getDirection() == Sort.Direction.DESC;
+        if (filter.getAfterStart() != null) {
+            String after = descending ? "<" : ">";
+            jpql.append(" and (b.start ").append(after).append(" :afterStart")
+                    .append(" or (b.start = :afterStart and b.id ").append(after).append(" :afterId))");
+            parameters.put("afterStart", filter.getAfterStart());
+            parameters.put("afterId", filter.getAfterId());
+        }
+        String order = descending ? " desc" : " asc";
+        jpql.append(" order by b.start").append(order).append(", b.id").append(order);
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), resultClass);
+        parameters.forEach(query::setParameter);
+        return query
+                .setFirstResult(filter.getOffset())
+                .setMaxResults(filter.getLimit())
+                .getResultList();
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.booking.repository;
+
+import java.time.LocalDateTime;
+
+public interface BookingIntervalProjection {
+    Long getId();
+
+    Long getItemId();
+
+    Long getBookerId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
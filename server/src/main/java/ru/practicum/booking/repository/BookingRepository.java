@@ -1,59 +1,32 @@
 package ru.practicum.booking.repository;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.booking.model.Booking;
 import ru.practicum.booking.model.Status;
 import ru.practicum.item.model.Item;
 import ru.practicum.user.model.User;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByBooker(User user, Pageable p);
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
-    @Query("select b from Booking b " +
-            "where b.booker.id = ?1 " +
-            "and b.start <= current_timestamp " +
-            "and b.end >= current_timestamp " +
-            "order by b.end desc")
-    List<Booking> findByBookerIdCurrent(Long userId, Pageable p);
-
-
-    List<Booking> findByBookerAndStatus(User user, Status status, Pageable p);
-
-    @Query("select b from Booking b " +
-            "where b.booker.id = ?1 " +
-            "and b.start <= current_timestamp " +
-            "and b.end <= current_timestamp " +
-            "order by b.end desc")
-    List<Booking> findByBookerIdPast(Long userId, Pageable p);
-
-    List<Booking> findByBookerAndStartIsAfter(User user, LocalDateTime now, Pageable p);
-
-    List<Booking> findByItemOwner(User user, Pageable p);
-
-    @Query("select b from Booking b " +
-            "where b.item.owner.id = ?1 " +
-            "and b.start <= current_timestamp " +
-            "and b.end >= current_timestamp " +
-            "order by b.end desc")
-    List<Booking> findByItemOwnerIdCurrent(Long userId, Pageable p);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingFilterRepository,
+        BookingStatusRepository {
+    // Все, что попадает в BookingOutputDto: вещь с владельцем и запросом, автор бронирования
+    @EntityGraph(attributePaths = {"item", "item.owner", "item.itemRequest", "item.itemRequest.requestor", "booker"})
+    Optional<Booking> findWithDetailsById(Long bookingId);
 
-    @Query("select b from Booking b " +
-            "where b.item.owner.id = ?1 " +
-            "and b.start <= current_timestamp " +
-            "and b.end <= current_timestamp " +
-            "order by b.end desc")
-    List<Booking> findByItemOwnerIdPast(Long userId, Pageable p);
-
-    List<Booking> findByItemOwnerAndStartAfter(User user, LocalDateTime start, Pageable p);
-
-    List<Booking> findByItemOwnerAndStatusEquals(User user, Status status, Pageable p);
+    @EntityGraph(attributePaths = {"item", "item.owner", "item.itemRequest", "item.itemRequest.requestor", "booker"})
+    List<Booking> findAllWithDetailsByIdIn(Collection<Long> bookingIds);
 
     Optional<Booking> findFirstByItemIdAndEndIsBeforeAndStatusIs(
             Long itemId, LocalDateTime end, Status status, Sort sort);
@@ -62,4 +35,50 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             Long itemId, LocalDateTime end, Status status, Sort sort);
 
     Optional<Booking> findFirstByItemAndBookerAndEndIsBeforeOrderByEnd(Item item, User user, LocalDateTime now);
+
+    @Query("select b from Booking b " +
+            "join fetch b.booker " +
+            "where b.item.id in ?1 " +
+            "and b.status = ?3 " +
+            "and b.end < ?2 " +
+            "and b.end = (select max(lb.end) from Booking lb " +
+            "where lb.item.id = b.item.id and lb.status = ?3 and lb.end < ?2)")
+    List<Booking> findLastBookingsByItemIds(List<Long> itemIds, LocalDateTime now, Status status);
+
+    @Query("select b from Booking b " +
+            "join fetch b.booker " +
+            "where b.item.id in ?1 " +
+            "and b.status = ?3 " +
+            "and b.end > ?2 " +
+            "and b.end = (select min(nb.end) from Booking nb " +
+            "where nb.item.id = b.item.id and nb.status = ?3 and nb.end > ?2)")
+    List<Booking> findNextBookingsByItemIds(List<Long> itemIds, LocalDateTime now, Status status);
+
+    @Query("select case when count(b) > 0 then true else false end from Booking b " +
+            "where b.item.id = ?1 " +
+            "and b.status = ?4 " +
+            "and b.start < ?3 " +
+            "and b.end > ?2")
+    boolean existsOverlapping(Long itemId, LocalDateTime start, LocalDateTime end, Status status);
+
+    @Query("select b from Booking b " +
+            "join fetch b.booker " +
+            "where b.item.id = ?1 " +
+            "and b.status = ?3 " +
+            "and (b.end = (select max(lb.end) from Booking lb " +
+            "where lb.item.id = ?1 and lb.status = ?3 and lb.end < ?2) " +
+            "or b.end = (select min(nb.end) from Booking nb " +
+            "where nb.item.id = ?1 and nb.status = ?3 and nb.end > ?2))")
+    List<Booking> findLastAndNextBookingsByItemId(Long itemId, LocalDateTime now, Status status);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as start, b.end as end " +
+            "from Booking b " +
+            "where b.status = ?1")
+    Stream<BookingIntervalProjection> streamAllByStatus(Status status);
+
+    @Query("select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as start, b.end as end " +
+            "from Booking b " +
+            "where b.item.id = ?1 and b.status = ?2")
+    List<BookingIntervalProjection> findIntervalsByItemIdAndStatus(Long itemId, Status status);
 }
@@ -0,0 +1,28 @@
+package ru.practicum.booking.repository;
+
+import java.util.Collection;
+
+public interface BookingStatusRepository {
+
+    /**
+     * Подтверждает бронь одним UPDATE, если она ожидает решения, принадлежит вещи владельца ownerId
+     * и не пересекается с уже подтвержденными бронями этой вещи. Возвращает число измененных строк.
+     */
+    int approveIfWaiting(Long bookingId, Long ownerId);
+
+    /**
+     * Отклоняет бронь одним UPDATE, если она ожидает решения и принадлежит вещи владельца ownerId.
+     */
+    int rejectIfWaiting(Long bookingId, Long ownerId);
+
+    /**
+     * Подтверждает одним UPDATE все брони из bookingIds, которые ожидают решения, принадлежат вещам владельца
+     * ownerId и не пересекаются с уже подтвержденными. Пересечения между самими bookingIds не проверяются.
+     */
+    int approveAllIfWaiting(Collection<Long> bookingIds, Long ownerId);
+
+    /**
+     * Отклоняет одним UPDATE все брони из bookingIds, которые ожидают решения и принадлежат вещам владельца ownerId.
+     */
+    int rejectAllIfWaiting(Collection<Long> bookingIds, Long ownerId);
+}
@@ -0,0 +1,65 @@
+package ru.practicum.booking.repository;
+
+import org.hibernate.query.NativeQuery;
+import ru.practicum.booking.model.Booking;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Условные UPDATE вместо чтения и сохранения брони: статус, владелец и пересечения проверяются
+ * в одном операторе, поэтому одновременные подтверждение и отклонение не затирают друг друга.
+ * Запросы нативные: Hibernate 5 не переносит псевдоним таблицы в подзапросы массового UPDATE.
+ */
+public class BookingStatusRepositoryImpl implements BookingStatusRepository {
+
+    private static final String WAITING_FOR_OWNER = "where booking_id in (:bookingIds) " +
+            "and status = 'WAITING' " +
+            "and exists (select 1 from items i where i.item_id = bookings.item_id and i.owner_id = :ownerId)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int approveIfWaiting(Long bookingId, Long ownerId) {
+        return approveAllIfWaiting(List.of(bookingId), ownerId);
+    }
+
+    @Override
+    public int rejectIfWaiting(Long bookingId, Long ownerId) {
+        return rejectAllIfWaiting(List.of(bookingId), ownerId);
+    }
+
+    @Override
+    public int approveAllIfWaiting(Collection<Long> bookingIds, Long ownerId) {
+        return updateStatus("update bookings set status = 'APPROVED' " + WAITING_FOR_OWNER +
+                " and not exists (select 1 from bookings o where o.item_id = bookings.item_id " +
+                "and o.status = 'APPROVED' and o.start_date < bookings.end_date " +
+                "and o.end_date > bookings.start_date)", bookingIds, ownerId);
+    }
+
+    @Override
+    public int rejectAllIfWaiting(Collection<Long> bookingIds, Long ownerId) {
+        return updateStatus("update bookings set status = 'REJECTED' " + WAITING_FOR_OWNER, bookingIds, ownerId);
+    }
+
+    private int updateStatus(String sql, Collection<Long> bookingIds, Long ownerId) {
+        entityManager.flush();
+        // Без указания таблицы Hibernate сбросил бы после нативного UPDATE все регионы кэша второго уровня
+        int updated = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Booking.class)
+                .setParameter("bookingIds", bookingIds)
+                .setParameter("ownerId", ownerId)
+                .executeUpdate();
+        // Загруженные ранее брони из bookingIds могли устареть: следующее чтение должно пойти в БД.
+        // Остальные сущности вызывающего кода остаются управляемыми. Для незагруженной брони
+        // getReference вернет прокси без запроса к БД.
+        for (Long bookingId : bookingIds) {
+            entityManager.detach(entityManager.getReference(Booking.class, bookingId));
+        }
+        return updated;
+    }
+}
@@ -2,7 +2,11 @@ package ru.practicum.booking.service;
 
 import ru.practicum.booking.dto.BookingDto;
 import ru.practicum.booking.dto.BookingOutputDto;
+import ru.practicum.booking.dto.BookingShortDto;
+import ru.practicum.booking.dto.BookingStatusChangeDto;
+import ru.practicum.booking.dto.BookingStatusResultDto;
 import ru.practicum.booking.model.State;
+import ru.practicum.pagination.CursorPage;
 
 import java.util.List;
 
@@ -11,9 +15,28 @@ public interface BookingService {
 
     BookingOutputDto changeStatus(Long ownerId, Long bookingId, boolean approved);
 
+    List<BookingStatusResultDto> changeStatuses(Long ownerId, List<BookingStatusChangeDto> changes);
+
     BookingOutputDto getBookingById(Long userId, Long bookingId);
 
+    /**
+     * Брони по списку id в порядке запроса. Ненайденные брони и брони, недоступные пользователю, пропускаются.
+     */
+    List<BookingOutputDto> getBookingsByIds(Long userId, List<Long> bookingIds);
+
     List<BookingOutputDto> getAllByBooker(Long bookerId, State state, int from, int size);
 
+    CursorPage<BookingOutputDto> getAllByBooker(Long bookerId, State state, String cursor, int size);
+
     List<BookingOutputDto> getAllByOwner(Long ownerId, State state, int from, int size);
+
+    CursorPage<BookingOutputDto> getAllByOwner(Long ownerId, State state, String cursor, int size);
+
+    List<BookingShortDto> getShortByBooker(Long bookerId, State state, int from, int size);
+
+    CursorPage<BookingShortDto> getShortByBooker(Long bookerId, State state, String cursor, int size);
+
+    List<BookingShortDto> getShortByOwner(Long ownerId, State state, int from, int size);
+
+    CursorPage<BookingShortDto> getShortByOwner(Long ownerId, State state, String cursor, int size);
 }
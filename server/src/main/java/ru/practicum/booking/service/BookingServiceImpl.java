@@ -2,39 +2,63 @@ package ru.practicum.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.booking.cache.BookingQueryCache;
 import ru.practicum.booking.dto.BookingDto;
 import ru.practicum.booking.dto.BookingOutputDto;
+import ru.practicum.booking.dto.BookingShortDto;
+import ru.practicum.booking.dto.BookingStatusChangeDto;
+import ru.practicum.booking.dto.BookingStatusResultDto;
+import ru.practicum.booking.dto.BookingView;
+import ru.practicum.booking.index.BookingIntervalIndex;
 import ru.practicum.booking.mapper.BookingMapper;
 import ru.practicum.booking.model.Booking;
 import ru.practicum.booking.model.State;
 import ru.practicum.booking.model.Status;
+import ru.practicum.booking.repository.BookingFilter;
 import ru.practicum.booking.repository.BookingRepository;
 import ru.practicum.exception.BadRequestException;
 import ru.practicum.exception.NotFoundException;
+import ru.practicum.exception.ValidationException;
 import ru.practicum.item.model.Item;
 import ru.practicum.item.repository.ItemRepository;
+import ru.practicum.pagination.Cursor;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.user.cache.UserExistenceCache;
 import ru.practicum.user.model.User;
 import ru.practicum.user.repository.UserRepository;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    // Сколько раз пачка решений применяется заново после пересечения с одновременным подтверждением
+    private static final int MAX_STATUS_ATTEMPTS = 3;
+
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
-    private final Sort sort = Sort.by(Sort.Direction.DESC, "start");
-    private final LocalDateTime now = LocalDateTime.now();
+    private final BookingIntervalIndex bookingIndex;
+    private final BookingQueryCache queryCache;
+    private final Clock clock;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     @Transactional
@@ -50,39 +74,153 @@ public class BookingServiceImpl implements BookingService {
         if (Objects.equals(item.getOwner().getId(), bookerId)) {
             throw new NotFoundException("Владелец вещи не может ее забронировать");
         }
+        checkNoApprovedOverlap(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
         bookingDto.setStatus(Status.WAITING);
         Booking booking = bookingRepository.save(BookingMapper.toBooking(bookingDto, user, item));
+        bookingIndex.update(booking);
+        evictQueries(booking);
         return BookingMapper.toBookingOutputDto(booking);
     }
 
     @Override
     @Transactional
     public BookingOutputDto changeStatus(Long ownerId, Long bookingId, boolean approved) {
-        checkUserExistence(ownerId);
+        userExistenceCache.check(ownerId);
+        int updated;
+        try {
+            // Пересечения с подтвержденными бронями проверяет сам UPDATE, а от одновременного
+            // подтверждения на разных узлах защищает ограничение EX_BOOKINGS_APPROVED_OVERLAP в PostgreSQL.
+            updated = approved
+                    ? bookingRepository.approveIfWaiting(bookingId, ownerId)
+                    : bookingRepository.rejectIfWaiting(bookingId, ownerId);
+        } catch (DataIntegrityViolationException e) {
+            log.info(String.format("Бронь id %d пересекается с подтвержденным бронированием", bookingId));
+            throw new ValidationException(String.format("Бронь id %d пересекается с подтвержденным бронированием",
+                    bookingId));
+        }
         Booking booking = checkBookingExistence(bookingId);
+        if (updated == 0) {
+            throw statusNotChanged(ownerId, booking, approved);
+        }
+        bookingIndex.update(booking);
+        evictQueries(booking);
+        return BookingMapper.toBookingOutputDto(booking);
+    }
 
-        if (booking.getStatus().equals(Status.APPROVED)) {
-            throw new BadRequestException("Бронирование уже было подтверждено");
+    /**
+     * Применяет решения владельца в одной транзакции: все подтверждения одним условным UPDATE и все отклонения
+     * другим. Из подтверждаемых броней одной вещи, пересекающихся между собой, применяется первая по порядку
+     * в запросе. Ошибка по одной брони не отменяет остальные решения и возвращается в ее результате.
+     * Если бронь пересеклась с подтвержденной одновременно в другой транзакции, ограничение
+     * EX_BOOKINGS_APPROVED_OVERLAP откатывает транзакцию, и решения применяются заново: UPDATE уже видит
+     * чужое подтверждение и пропускает только пересекающиеся брони. Если пересечение повторилось во всех
+     * MAX_STATUS_ATTEMPTS попытках, ни одно решение не применено: брони перечитываются, и каждая возвращается
+     * с текущим статусом и своей ошибкой.
+     */
+    @Override
+    public List<BookingStatusResultDto> changeStatuses(Long ownerId, List<BookingStatusChangeDto> changes) {
+        userExistenceCache.check(ownerId);
+        Map<Long, Boolean> decisions = toDecisions(changes);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyStatuses(ownerId, decisions));
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MAX_STATUS_ATTEMPTS) {
+                    log.info(String.format("Брони %s пересекаются с подтвержденными бронированиями",
+                            decisions.keySet()));
+                    return transactionTemplate.execute(status -> notAppliedStatuses(ownerId, decisions));
+                }
+                log.info(String.format("Брони %s пересеклись с одновременно подтвержденными, попытка %d",
+                        decisions.keySet(), attempt));
+            }
         }
-        Item item = booking.getItem();
+    }
 
-        if (!Objects.equals(item.getOwner().getId(), ownerId)) {
-            log.info(String.format("Пользователь id %d не является владельцем вещи", ownerId));
-            throw new NotFoundException(String.format("Пользователь id %d не является владельцем вещи", ownerId));
+    private List<BookingStatusResultDto> applyStatuses(Long ownerId, Map<Long, Boolean> decisions) {
+        Map<Long, Booking> bookings = findBookings(List.copyOf(decisions.keySet()));
+        Map<Long, String> errors = new HashMap<>();
+        Map<Long, List<Booking>> approvedByItem = new HashMap<>();
+        List<Long> toApprove = new ArrayList<>();
+        List<Long> toReject = new ArrayList<>();
+        decisions.forEach((bookingId, approved) -> {
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                errors.put(bookingId, String.format("Бронь id %d  не найдена", bookingId));
+            } else if (booking.getStatus() != Status.WAITING
+                    || !Objects.equals(booking.getItem().getOwner().getId(), ownerId)) {
+                errors.put(bookingId, statusNotChanged(ownerId, booking, approved).getMessage());
+            } else if (!approved) {
+                toReject.add(bookingId);
+            } else {
+                List<Booking> itemApproved = approvedByItem.computeIfAbsent(booking.getItem().getId(),
+                        itemId -> new ArrayList<>());
+                if (itemApproved.stream().anyMatch(other -> other.getStart().isBefore(booking.getEnd())
+                        && other.getEnd().isAfter(booking.getStart()))) {
+                    errors.put(bookingId, String.format("Объект id %d уже забронирован на эти даты",
+                            booking.getItem().getId()));
+                } else {
+                    itemApproved.add(booking);
+                    toApprove.add(bookingId);
+                }
+            }
+        });
+
+        if (!toApprove.isEmpty()) {
+            bookingRepository.approveAllIfWaiting(toApprove, ownerId);
         }
-        if (approved && booking.getStatus().equals(Status.WAITING)) {
-            booking.setStatus(Status.APPROVED);
-        } else {
-            booking.setStatus(Status.REJECTED);
+        if (!toReject.isEmpty()) {
+            bookingRepository.rejectAllIfWaiting(toReject, ownerId);
         }
-        bookingRepository.save(booking);
-        return BookingMapper.toBookingOutputDto(bookingRepository.save(booking));
+
+        List<Long> changed = new ArrayList<>(toApprove);
+        changed.addAll(toReject);
+        Map<Long, Booking> updated = findBookings(changed);
+        List<BookingStatusResultDto> results = new ArrayList<>();
+        decisions.forEach((bookingId, approved) -> {
+            Booking booking = updated.getOrDefault(bookingId, bookings.get(bookingId));
+            String error = errors.get(bookingId);
+            if (error == null && booking.getStatus() == (approved ? Status.APPROVED : Status.REJECTED)) {
+                bookingIndex.update(booking);
+                evictQueries(booking);
+            } else if (error == null) {
+                error = statusNotChanged(ownerId, booking, approved).getMessage();
+            }
+            results.add(BookingStatusResultDto.builder()
+                    .bookingId(bookingId)
+                    .status(booking == null ? null : booking.getStatus())
+                    .error(error)
+                    .build());
+        });
+        return results;
+    }
+
+    private List<BookingStatusResultDto> notAppliedStatuses(Long ownerId, Map<Long, Boolean> decisions) {
+        Map<Long, Booking> bookings = findBookings(List.copyOf(decisions.keySet()));
+        List<BookingStatusResultDto> results = new ArrayList<>();
+        decisions.forEach((bookingId, approved) -> {
+            Booking booking = bookings.get(bookingId);
+            String error;
+            if (booking == null) {
+                error = String.format("Бронь id %d  не найдена", bookingId);
+            } else if (booking.getStatus() == Status.WAITING
+                    && Objects.equals(booking.getItem().getOwner().getId(), ownerId)) {
+                error = String.format("Бронь id %d пересекается с подтвержденным бронированием", bookingId);
+            } else {
+                error = statusNotChanged(ownerId, booking, approved).getMessage();
+            }
+            results.add(BookingStatusResultDto.builder()
+                    .bookingId(bookingId)
+                    .status(booking == null ? null : booking.getStatus())
+                    .error(error)
+                    .build());
+        });
+        return results;
     }
 
     @Override
     @Transactional
     public BookingOutputDto getBookingById(Long userId, Long bookingId) {
-        checkUserExistence(userId);
+        userExistenceCache.check(userId);
         Booking booking = checkBookingExistence(bookingId);
         Item item = booking.getItem();
 
@@ -96,71 +234,205 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    @Transactional
-    public List<BookingOutputDto> getAllByBooker(Long bookerId, State state, int from, int size) {
-        User user = checkUserExistence(bookerId);
-        PageRequest pageRequest = PageRequest.of(from / size, size, sort);
-        List<Booking> bookings = new ArrayList<>();
-        switch (state) {
-            case ALL:
-                bookings.addAll(bookingRepository.findByBooker(user, pageRequest));
-                break;
-            case CURRENT:
-                bookings.addAll(bookingRepository.findByBookerIdCurrent(bookerId, pageRequest));
-                break;
-            case PAST:
-                bookings.addAll(bookingRepository.findByBookerIdPast(bookerId, pageRequest));
-                break;
-            case FUTURE:
-                bookings.addAll(bookingRepository.findByBookerAndStartIsAfter(user, now, pageRequest));
-                break;
-            case WAITING:
-                bookings.addAll(bookingRepository.findByBookerAndStatus(user, Status.WAITING, pageRequest));
-                break;
-            case REJECTED:
-                bookings.addAll(bookingRepository.findByBookerAndStatus(user, Status.REJECTED, pageRequest));
-                break;
-            default:
-                throw new BadRequestException("Unknown state: UNSUPPORTED_STATUS");
-        }
-        return bookings.stream()
+    @Transactional(readOnly = true)
+    public List<BookingOutputDto> getBookingsByIds(Long userId, List<Long> bookingIds) {
+        userExistenceCache.check(userId);
+        Map<Long, Booking> bookings = findBookings(bookingIds);
+        return bookingIds.stream()
+                .distinct()
+                .map(bookings::get)
+                .filter(booking -> booking != null
+                        && (Objects.equals(booking.getItem().getOwner().getId(), userId)
+                        || Objects.equals(booking.getBooker().getId(), userId)))
                 .map(BookingMapper::toBookingOutputDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional
+    public List<BookingOutputDto> getAllByBooker(Long bookerId, State state, int from, int size) {
+        return findPage(BookingFilter.Role.BOOKER, bookerId, state, from, size, false, this::findFull);
+    }
+
+    @Override
+    @Transactional
+    public CursorPage<BookingOutputDto> getAllByBooker(Long bookerId, State state, String cursor, int size) {
+        return findPage(BookingFilter.Role.BOOKER, bookerId, state, cursor, size, false, this::findFull);
+    }
+
     @Override
     @Transactional
     public List<BookingOutputDto> getAllByOwner(Long ownerId, State state, int from, int size) {
-        User user = checkUserExistence(ownerId);
-        PageRequest pageRequest = PageRequest.of(from / size, size, sort);
-        List<Booking> bookings = new ArrayList<>();
-        switch (state) {
-            case ALL:
-                bookings.addAll(bookingRepository.findByItemOwner(user, pageRequest));
-                break;
-            case CURRENT:
-                bookings.addAll(bookingRepository.findByItemOwnerIdCurrent(ownerId, pageRequest));
-                break;
-            case PAST:
-                bookings.addAll(bookingRepository.findByItemOwnerIdPast(ownerId, pageRequest));
-                break;
-            case FUTURE:
-                bookings.addAll(bookingRepository.findByItemOwnerAndStartAfter(user, now, pageRequest));
-                break;
-            case WAITING:
-                bookings.addAll(bookingRepository.findByItemOwnerAndStatusEquals(user, Status.WAITING, pageRequest));
-                break;
-            case REJECTED:
-                bookings.addAll(bookingRepository.findByItemOwnerAndStatusEquals(user, Status.REJECTED, pageRequest));
-                break;
-            default:
-                throw new BadRequestException("Unknown state: UNSUPPORTED_STATUS");
+        return findPage(BookingFilter.Role.OWNER, ownerId, state, from, size, false, this::findFull);
+    }
+
+    @Override
+    @Transactional
+    public CursorPage<BookingOutputDto> getAllByOwner(Long ownerId, State state, String cursor, int size) {
+        return findPage(BookingFilter.Role.OWNER, ownerId, state, cursor, size, false, this::findFull);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingShortDto> getShortByBooker(Long bookerId, State state, int from, int size) {
+        return findPage(BookingFilter.Role.BOOKER, bookerId, state, from, size, true,
+                bookingRepository::findShortByFilter);
+    }
+
+    @Override
+    @Transactional
+    public CursorPage<BookingShortDto> getShortByBooker(Long bookerId, State state, String cursor, int size) {
+        return findPage(BookingFilter.Role.BOOKER, bookerId, state, cursor, size, true,
+                bookingRepository::findShortByFilter);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingShortDto> getShortByOwner(Long ownerId, State state, int from, int size) {
+        return findPage(BookingFilter.Role.OWNER, ownerId, state, from, size, true,
+                bookingRepository::findShortByFilter);
+    }
+
+    @Override
+    @Transactional
+    public CursorPage<BookingShortDto> getShortByOwner(Long ownerId, State state, String cursor, int size) {
+        return findPage(BookingFilter.Role.OWNER, ownerId, state, cursor, size, true,
+                bookingRepository::findShortByFilter);
+    }
+
+    // Списки броней отличаются только ролью пользователя, видом элементов и способом перехода на страницу.
+    private <T extends BookingView> List<T> findPage(BookingFilter.Role role, Long userId, State state,
+                                                     int from, int size, boolean shortView,
+                                                     Function<BookingFilter, List<T>> query) {
+        userExistenceCache.check(userId);
+        LocalDateTime now = now();
+        return queryCache.get(cacheKey(role, userId, state, now, from, size, null, shortView),
+                () -> query.apply(filter(role, userId, state, now)
+                        .offset(from)
+                        .limit(size)
+                        .build()));
+    }
+
+    private <T extends BookingView> CursorPage<T> findPage(BookingFilter.Role role, Long userId, State state,
+                                                           String cursor, int size, boolean shortView,
+                                                           Function<BookingFilter, List<T>> query) {
+        userExistenceCache.check(userId);
+        Cursor after = Cursor.decode(cursor, 2);
+        LocalDateTime now = now();
+        return queryCache.get(cacheKey(role, userId, state, now, 0, size, cursor, shortView),
+                () -> toCursorPage(query.apply(after(filter(role, userId, state, now), after, size)), size));
+    }
+
+    private List<BookingOutputDto> findFull(BookingFilter filter) {
+        return toDtoList(bookingRepository.findByFilter(filter));
+    }
+
+    private static BookingQueryCache.Key cacheKey(BookingFilter.Role role, Long userId, State state,
+                                                  LocalDateTime now, int from, int size, String cursor,
+                                                  boolean shortView) {
+        BookingQueryCache.Key key = role == BookingFilter.Role.OWNER
+                ? BookingQueryCache.ofOwner(userId, state, now, from, size, cursor)
+                : BookingQueryCache.ofBooker(userId, state, now, from, size, cursor);
+        return shortView ? key.shortView() : key;
+    }
+
+    private static BookingFilter.BookingFilterBuilder filter(BookingFilter.Role role, Long userId, State state,
+                                                             LocalDateTime now) {
+        return BookingFilter.builder()
+                .role(role)
+                .userId(userId)
+                .state(state)
+                .now(now);
+    }
+
+    private static BookingFilter after(BookingFilter.BookingFilterBuilder filter, Cursor after, int size) {
+        if (after != null) {
+            filter.afterStart(after.getDateTime(0))
+                    .afterId(after.getLong(1));
         }
+        return filter.limit(size).build();
+    }
+
+    private static List<BookingOutputDto> toDtoList(List<Booking> bookings) {
         return bookings.stream()
                 .map(BookingMapper::toBookingOutputDto)
                 .collect(Collectors.toList());
     }
 
+    private static <T extends BookingView> CursorPage<T> toCursorPage(List<T> content, int size) {
+        String nextCursor = null;
+        if (content.size() == size) {
+            T last = content.get(size - 1);
+            nextCursor = Cursor.encode(last.getStart(), last.getId());
+        }
+        return new CursorPage<>(content, nextCursor);
+    }
+
+    private static Map<Long, Boolean> toDecisions(List<BookingStatusChangeDto> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new BadRequestException("Укажите брони для изменения статуса");
+        }
+        Map<Long, Boolean> decisions = new LinkedHashMap<>();
+        for (BookingStatusChangeDto change : changes) {
+            if (change.getBookingId() == null || change.getApproved() == null) {
+                throw new BadRequestException("Для каждой брони укажите bookingId и approved");
+            }
+            if (decisions.put(change.getBookingId(), change.getApproved()) != null) {
+                throw new BadRequestException(String.format("Бронь id %d указана несколько раз",
+                        change.getBookingId()));
+            }
+        }
+        return decisions;
+    }
+
+    private Map<Long, Booking> findBookings(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return Map.of();
+        }
+        return bookingRepository.findAllWithDetailsByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+    }
+
+    private RuntimeException statusNotChanged(Long ownerId, Booking booking, boolean approved) {
+        Item item = booking.getItem();
+        if (!Objects.equals(item.getOwner().getId(), ownerId)) {
+            log.info(String.format("Пользователь id %d не является владельцем вещи", ownerId));
+            return new NotFoundException(String.format("Пользователь id %d не является владельцем вещи", ownerId));
+        }
+        if (booking.getStatus().equals(Status.APPROVED)) {
+            return new BadRequestException("Бронирование уже было подтверждено");
+        }
+        if (booking.getStatus().equals(Status.REJECTED)) {
+            return new BadRequestException("Бронирование уже было отклонено");
+        }
+        if (approved) {
+            log.info(String.format("Объект id %d уже забронирован с %s по %s",
+                    item.getId(), booking.getStart(), booking.getEnd()));
+            return new ValidationException(String.format("Объект id %d уже забронирован на эти даты", item.getId()));
+        }
+        return new BadRequestException(String.format("Статус брони id %d не изменен", booking.getId()));
+    }
+
+    // Граница выборок по времени округляется до секунды, чтобы одинаковые запросы попадали в кэш.
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private void evictQueries(Booking booking) {
+        queryCache.evictUser(booking.getBooker().getId());
+        queryCache.evictUser(booking.getItem().getOwner().getId());
+    }
+
+    private void checkNoApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        boolean booked = bookingIndex.isEnabled()
+                ? bookingIndex.isBooked(itemId, start, end)
+                : bookingRepository.existsOverlapping(itemId, start, end, Status.APPROVED);
+        if (booked) {
+            log.info(String.format("Объект id %d уже забронирован с %s по %s", itemId, start, end));
+            throw new ValidationException(String.format("Объект id %d уже забронирован на эти даты", itemId));
+        }
+    }
+
     private User checkUserExistence(Long userId) {
         log.info(String.format("Поиск пользователя с id %d", userId));
         return userRepository.findById(userId).orElseThrow(() -> {
@@ -171,7 +443,7 @@ public class BookingServiceImpl implements BookingService {
 
     private Item checkItemExistence(Long itemId) {
         log.info(String.format("Поиск объекта с id %d", itemId));
-        return itemRepository.findById(itemId).orElseThrow(() -> {
+        return itemRepository.findWithDetailsById(itemId).orElseThrow(() -> {
             log.info(String.format("Объект id %d  не найден", itemId));
             throw new NotFoundException(String.format("Объект id %d  не найден", itemId));
         });
@@ -179,7 +451,7 @@ public class BookingServiceImpl implements BookingService {
 
     private Booking checkBookingExistence(Long bookingId) {
         log.info(String.format("Поиск брони с id %d", bookingId));
-        return bookingRepository.findById(bookingId).orElseThrow(() -> {
+        return bookingRepository.findWithDetailsById(bookingId).orElseThrow(() -> {
             log.info(String.format("Бронь id %d  не найдена", bookingId));
             throw new NotFoundException(String.format("Бронь id %d  не найдена", bookingId));
         });
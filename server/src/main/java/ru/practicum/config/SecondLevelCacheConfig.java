@@ -0,0 +1,86 @@
+package ru.practicum.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Кэш второго уровня Hibernate и кэш запросов в памяти процесса для редко изменяемых User, Item и ItemRequest.
+ * Каждый регион ограничен по размеру и времени жизни (shareit.cache.&lt;регион&gt;.maximum-size и .ttl).
+ * Изменения через Hibernate обновляют кэш сами, изменения на других узлах видны не позже чем через ttl.
+ * Регионы создаются здесь, а неизвестный регион останавливает запуск вместо создания неограниченного кэша.
+ * Статистика регионов публикуется в метриках hibernate.second.level.cache.*.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+    public static final String REQUESTS = "requests";
+
+    private static final String QUERY = "query";
+    private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "shareit.cache.enabled", havingValue = "true")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        // Отдельный менеджер на контекст: провайдер общий для JVM, а имена регионов совпадают
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("shareit-hibernate-" + System.identityHashCode(environment)),
+                        getClass().getClassLoader());
+        Binder binder = Binder.get(environment);
+        createRegion(cacheManager, binder, USERS, USERS);
+        createRegion(cacheManager, binder, ITEMS, ITEMS);
+        createRegion(cacheManager, binder, REQUESTS, REQUESTS);
+        createRegion(cacheManager, binder, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, QUERY);
+        // Метки последних изменений таблиц не должны вытесняться раньше закэшированных по ним запросов
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheProperties(
+            ObjectProvider<CacheManager> hibernateCacheManager) {
+        CacheManager cacheManager = hibernateCacheManager.getIfAvailable();
+        return properties -> {
+            // Hibernate сам подключает единственную найденную на classpath фабрику регионов, поэтому выключать явно
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, cacheManager != null);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, cacheManager != null);
+            if (cacheManager != null) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+                properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            }
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, Binder binder, String region, String property) {
+        String prefix = "shareit.cache." + property;
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(binder.bind(prefix + ".maximum-size", Long.class)
+                .orElse(DEFAULT_MAXIMUM_SIZE)));
+        configuration.setExpireAfterWrite(OptionalLong.of(binder.bind(prefix + ".ttl", Duration.class)
+                .orElse(DEFAULT_TTL)
+                .toNanos()));
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(region, configuration);
+    }
+}
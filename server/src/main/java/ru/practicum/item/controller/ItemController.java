@@ -1,12 +1,24 @@
 package ru.practicum.item.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.item.dto.CommentDto;
 import ru.practicum.item.dto.ItemBookingDto;
 import ru.practicum.item.dto.ItemDto;
+import ru.practicum.item.dto.ItemImportResultDto;
 import ru.practicum.item.service.ItemService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,6 +26,7 @@ import java.util.List;
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     public static final String HEADER = "X-Sharer-User-Id";
 
@@ -22,6 +35,31 @@ public class ItemController {
         return itemService.createItem(userId, itemDto);
     }
 
+    /**
+     * Импорт вещей из NDJSON или JSON-массива. Тело читается по одной вещи, а результат по каждой строке
+     * пишется в ответ NDJSON сразу после сохранения ее пачки.
+     */
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importItems(@RequestHeader(HEADER) Long userId, InputStream items) {
+        ObjectWriter writer = objectMapper.writerFor(ItemImportResultDto.class);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> {
+                    try (MappingIterator<ItemDto> lines = objectMapper.readerFor(ItemDto.class).readValues(items)) {
+                        itemService.importItems(userId, lines, result -> {
+                            try {
+                                out.write(writer.writeValueAsBytes(result));
+                                out.write('\n');
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                    }
+                });
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@RequestHeader(HEADER) Long userId, @PathVariable("itemId") Long itemId,
                               @RequestBody ItemDto itemDto) {
@@ -34,22 +72,44 @@ public class ItemController {
         return itemService.getItemById(userId, itemId);
     }
 
+    @GetMapping(params = "ids")
+    public List<ItemBookingDto> getItemsByIds(@RequestHeader(HEADER) Long userId,
+                                              @RequestParam("ids") List<Long> itemIds) {
+        return itemService.getItemsByIds(userId, itemIds);
+    }
+
     @GetMapping
-    public List<ItemBookingDto> getItems(@RequestHeader(HEADER) Long userId,
-                                         @RequestParam(value = "from",
-                                                 defaultValue = "0", required = false) int from,
-                                         @RequestParam(value = "size", defaultValue = "10",
-                                                 required = false) int size) {
-        return itemService.getItems(userId, from, size);
+    public ResponseEntity<List<ItemBookingDto>> getItems(@RequestHeader(HEADER) Long userId,
+                                                         @RequestParam(value = "from",
+                                                                 defaultValue = "0", required = false) int from,
+                                                         @RequestParam(value = "size", defaultValue = "10",
+                                                                 required = false) int size,
+                                                         @RequestParam(value = "cursor",
+                                                                 required = false) String cursor) {
+        if (cursor == null) {
+            return ResponseEntity.ok(itemService.getItems(userId, from, size));
+        }
+        return itemService.getItems(userId, cursor, size).toResponseEntity();
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchItem(@RequestParam String text,
-                                    @RequestParam(value = "from",
-                                            defaultValue = "0", required = false) int from,
-                                    @RequestParam(value = "size", defaultValue = "10",
-                                            required = false) int size) {
-        return itemService.searchItem(text, from, size);
+    public ResponseEntity<List<ItemDto>> searchItem(@RequestParam String text,
+                                                    @RequestParam(value = "start", required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                    LocalDateTime start,
+                                                    @RequestParam(value = "end", required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                    LocalDateTime end,
+                                                    @RequestParam(value = "from",
+                                                            defaultValue = "0", required = false) int from,
+                                                    @RequestParam(value = "size", defaultValue = "10",
+                                                            required = false) int size,
+                                                    @RequestParam(value = "cursor",
+                                                            required = false) String cursor) {
+        if (cursor == null) {
+            return ResponseEntity.ok(itemService.searchItem(text, start, end, from, size));
+        }
+        return itemService.searchItem(text, start, end, cursor, size).toResponseEntity();
     }
 
     @PostMapping("/{itemId}/comment")
@@ -1,10 +1,20 @@
 package ru.practicum.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.item.model.Comment;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findAllByItemId(Long itemId);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findAllByItemIdIn(List<Long> itemIds);
+
+    @Query("select c from Comment c " +
+            "join fetch c.author " +
+            "where c.item.id = ?1")
+    List<Comment> findAllWithAuthorByItemId(Long itemId);
+}
@@ -1,23 +1,45 @@
 package ru.practicum.item.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.item.model.Item;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
-    @Query("select i from Item i " +
-            "where upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "or upper(i.description) like upper(concat('%', ?1, '%')) " +
-            "and i.available = true")
-    List<Item> searchItemsByText(String text, Pageable pageRequest);
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemSearchRepository {
+
+    // Вещь целиком для BookingOutputDto
+    @EntityGraph(attributePaths = {"owner", "itemRequest", "itemRequest.requestor"})
+    Optional<Item> findWithDetailsById(Long itemId);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("select i from Item i " +
             "where i.itemRequest.id = ?1")
     List<Item> findAllByRequestId(Long requestId);
 
+    // Вещи сразу для страницы запросов, группировка по запросу выполняется в сервисе
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select i from Item i " +
+            "where i.itemRequest.id in ?1 " +
+            "order by i.id")
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
     List<Item> findAllByOwnerIdOrderByIdAsc(Long userId, Pageable pageRequest);
+
+    List<Item> findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Pageable pageRequest);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select i.id as id, i.name as name, i.description as description from Item i " +
+            "where i.available = true")
+    Stream<ItemTextProjection> streamAllAvailable();
 }
@@ -0,0 +1,24 @@
+package ru.practicum.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemSearchRepository {
+
+    /**
+     * Ищет доступные вещи, в названии или описании которых встречается каждое из слов.
+     * Вещи с совпадениями в названии идут первыми. Если заданы start и end, возвращаются только вещи
+     * без подтвержденных бронирований, пересекающихся с интервалом [start, end).
+     */
+    List<Item> searchAvailableItems(List<String> terms, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    /**
+     * То же, что searchAvailableItems, но страница начинается после вещи с рангом afterRank и id afterId.
+     * Если afterRank равен null, возвращается первая страница.
+     */
+    List<RankedItem> searchAvailableItemsAfter(List<String> terms, LocalDateTime start, LocalDateTime end,
+                                               Integer afterRank, Long afterId, int size);
+}
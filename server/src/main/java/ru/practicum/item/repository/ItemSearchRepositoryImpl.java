@@ -0,0 +1,116 @@
+package ru.practicum.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.booking.model.Status;
+import ru.practicum.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ItemSearchRepositoryImpl implements ItemSearchRepository {
+
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Item> searchAvailableItems(List<String> terms, LocalDateTime start, LocalDateTime end,
+                                           Pageable pageable) {
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        TypedQuery<Item> query = entityManager.createQuery("select i from Item i " + where(terms, start != null)
+                + " order by " + rank(terms) + " desc, i.id asc", Item.class);
+        setParameters(query, terms, start, end);
+        return query
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    @Override
+    public List<RankedItem> searchAvailableItemsAfter(List<String> terms, LocalDateTime start, LocalDateTime end,
+                                                      Integer afterRank, Long afterId, int size) {
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String rank = rank(terms);
+        String where = where(terms, start != null);
+        if (afterRank != null) {
+            where += " and (" + rank + " < :afterRank or (" + rank + " = :afterRank and i.id > :afterId))";
+        }
+        Query query = entityManager.createQuery(
+                "select i, " + rank + " from Item i " + where + " order by " + rank + " desc, i.id asc");
+        setParameters(query, terms, start, end);
+        if (afterRank != null) {
+            query.setParameter("afterRank", afterRank);
+            query.setParameter("afterId", afterId);
+        }
+        return ((List<?>) query
+                .setMaxResults(size)
+                .getResultList())
+                .stream()
+                .map(Object[].class::cast)
+                .map(row -> new RankedItem((Item) row[0], ((Number) row[1]).intValue()))
+                .collect(Collectors.toList());
+    }
+
+    private static String where(List<String> terms, boolean freeInWindow) {
+        StringBuilder where = new StringBuilder("where i.available = true");
+        for (int i = 0; i < terms.size(); i++) {
+            where.append(" and (").append(nameMatch(i)).append(" or ").append(descriptionMatch(i)).append(")");
+        }
+        if (freeInWindow) {
+            // Анти-соединение по индексу IX_BOOKINGS_ITEM_STATUS_END (item_id, status, end_date)
+            where.append(" and not exists (select b.id from Booking b where b.item = i and b.status = :approved")
+                    .append(" and b.end > :start and b.start < :end)");
+        }
+        return where.toString();
+    }
+
+    private static String rank(List<String> terms) {
+        StringBuilder rank = new StringBuilder();
+        for (int i = 0; i < terms.size(); i++) {
+            if (i > 0) {
+                rank.append(" + ");
+            }
+            rank.append("(case when ").append(nameMatch(i)).append(" then ").append(NAME_WEIGHT)
+                    .append(" when ").append(descriptionMatch(i)).append(" then ").append(DESCRIPTION_WEIGHT)
+                    .append(" else 0 end)");
+        }
+        return rank.toString();
+    }
+
+    private static String nameMatch(int term) {
+        return "upper(i.name) like upper(:term" + term + ") escape '\\'";
+    }
+
+    private static String descriptionMatch(int term) {
+        return "upper(i.description) like upper(:term" + term + ") escape '\\'";
+    }
+
+    private static void setParameters(Query query, List<String> terms, LocalDateTime start, LocalDateTime end) {
+        for (int i = 0; i < terms.size(); i++) {
+            query.setParameter("term" + i, "%" + escapeLike(terms.get(i)) + "%");
+        }
+        if (start != null) {
+            query.setParameter("approved", Status.APPROVED);
+            query.setParameter("start", start);
+            query.setParameter("end", end);
+        }
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
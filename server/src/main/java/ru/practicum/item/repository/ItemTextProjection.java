@@ -0,0 +1,9 @@
+package ru.practicum.item.repository;
+
+public interface ItemTextProjection {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+}
@@ -0,0 +1,12 @@
+package ru.practicum.item.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.item.model.Item;
+
+@Getter
+@AllArgsConstructor
+public class RankedItem {
+    private final Item item;
+    private final int rank;
+}
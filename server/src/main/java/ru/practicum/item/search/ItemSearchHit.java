@@ -0,0 +1,11 @@
+package ru.practicum.item.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ItemSearchHit {
+    private final long itemId;
+    private final int rank;
+}
@@ -0,0 +1,326 @@
+package ru.practicum.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.item.model.Item;
+import ru.practicum.item.repository.ItemRepository;
+import ru.practicum.item.repository.ItemTextProjection;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Инвертированный индекс по названию и описанию доступных вещей.
+ * Включается свойством shareit.search.index.enabled, строится из БД при старте
+ * и обновляется при создании и изменении вещей. Слово запроса находит вещи, в названии или описании
+ * которых оно встречается как подстрока, так же как поиск через SQL: слова-кандидаты находятся
+ * по триграммам (см. TokenDictionary). Слова со знаками препинания и короче трех символов
+ * индекс не обслуживает (см. canSearch), их ищет SQL.
+ */
+@Component
+@Slf4j
+public class ItemSearchIndex {
+
+    private static final String TOKEN_DELIMITER = "[^\\p{L}\\p{N}]+";
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int SCORE_SHIFT = 48;
+    private static final long ID_MASK = (1L << SCORE_SHIFT) - 1;
+    private static final long HASH_ENTRY_OVERHEAD = 48;
+    private static final long ARRAY_OVERHEAD = 16;
+    private static final long REFERENCE_SIZE = 8;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TokenDictionary nameIndex = new TokenDictionary();
+    private final TokenDictionary descriptionIndex = new TokenDictionary();
+    private final Map<Long, IndexedItem> indexedItems = new HashMap<>();
+    private final Set<Long> updatedDuringRebuild = new HashSet<>();
+    private volatile boolean ready;
+    // Пересчитывается при каждом изменении под блокировкой записи, чтобы метрика не обходила индекс
+    private volatile long itemsMemoryBytes;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${shareit.search.index.enabled:false}") boolean enabled) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+        Gauge.builder("shareit.search.index.memory", this, ItemSearchIndex::memoryBytes)
+                .description("Примерный объем памяти, занятый индексом поиска вещей")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.index.items", this, ItemSearchIndex::size)
+                .description("Количество вещей в индексе поиска")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Построение индекса поиска вещей");
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            nameIndex.clear();
+            descriptionIndex.clear();
+            indexedItems.clear();
+            updatedDuringRebuild.clear();
+            itemsMemoryBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try (Stream<ItemTextProjection> items = itemRepository.streamAllAvailable()) {
+            items.forEach(item -> {
+                lock.writeLock().lock();
+                try {
+                    if (!updatedDuringRebuild.contains(item.getId())) {
+                        add(item.getId(), item.getName(), item.getDescription());
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        }
+
+        lock.writeLock().lock();
+        try {
+            updatedDuringRebuild.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info(String.format("Индекс поиска построен: %d вещей, около %d байт", size(), memoryBytes()));
+    }
+
+    public void update(Item item) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                updatedDuringRebuild.add(item.getId());
+            }
+            remove(item.getId());
+            if (Boolean.TRUE.equals(item.getAvailable())) {
+                add(item.getId(), item.getName(), item.getDescription());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Можно ли искать эти слова по индексу: индекс хранит только последовательности букв и цифр,
+     * поэтому слово со знаками препинания (например, "wi-fi" или "w%d") нужно искать через SQL.
+     * Слово короче триграммы тоже ищет SQL: по нему нельзя выбрать слова-кандидаты.
+     */
+    public boolean canSearch(List<String> terms) {
+        return terms.stream().allMatch(term -> TOKEN.matcher(term).matches()
+                && term.toLowerCase(Locale.ROOT).length() >= TokenDictionary.GRAM_LENGTH);
+    }
+
+    /**
+     * Возвращает страницу id доступных вещей, содержащих все слова запроса как подстроки.
+     * Вещи с совпадениями в названии идут первыми, при равенстве - по возрастанию id.
+     */
+    public List<Long> search(List<String> terms, long offset, int size) {
+        long[] keys = rankedKeys(tokenize(terms));
+        List<Long> page = new ArrayList<>();
+        for (long i = offset; i < keys.length && page.size() < size; i++) {
+            page.add(keys[(int) i] & ID_MASK);
+        }
+        return page;
+    }
+
+    /**
+     * То же, что search, но страница начинается после вещи с рангом afterRank и id afterId.
+     * Если afterRank равен null, возвращается первая страница.
+     */
+    public List<ItemSearchHit> searchAfter(List<String> terms, Integer afterRank, Long afterId, int size) {
+        List<String> tokens = tokenize(terms);
+        long[] keys = rankedKeys(tokens);
+        int maxScore = NAME_WEIGHT * tokens.size();
+        int start = 0;
+        if (afterRank != null) {
+            int position = Arrays.binarySearch(keys, key(maxScore - afterRank, afterId));
+            start = position >= 0 ? position + 1 : -position - 1;
+        }
+        List<ItemSearchHit> page = new ArrayList<>();
+        for (int i = start; i < keys.length && page.size() < size; i++) {
+            page.add(new ItemSearchHit(keys[i] & ID_MASK, maxScore - (int) (keys[i] >>> SCORE_SHIFT)));
+        }
+        return page;
+    }
+
+    private static List<String> tokenize(List<String> terms) {
+        return terms.stream()
+                .flatMap(term -> tokenize(term).stream())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    // Старшие биты ключа - инвертированный вес, младшие - id: сортировка long[] дает нужный порядок.
+    private long[] rankedKeys(List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return new long[0];
+        }
+
+        long[] candidates = null;
+        List<long[]> nameMatches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                long[] inName = nameIndex.collect(token);
+                long[] matches = union(inName, descriptionIndex.collect(token));
+                candidates = candidates == null ? matches : intersect(candidates, matches);
+                if (candidates.length == 0) {
+                    return candidates;
+                }
+                nameMatches.add(inName);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int maxScore = NAME_WEIGHT * tokens.size();
+        long[] keys = new long[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            int score = 0;
+            for (long[] inName : nameMatches) {
+                score += Arrays.binarySearch(inName, candidates[i]) >= 0 ? NAME_WEIGHT : DESCRIPTION_WEIGHT;
+            }
+            keys[i] = key(maxScore - score, candidates[i]);
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static long key(int invertedScore, long id) {
+        return ((long) invertedScore << SCORE_SHIFT) | id;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return indexedItems.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long memoryBytes() {
+        return itemsMemoryBytes + nameIndex.memoryBytes() + descriptionIndex.memoryBytes();
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split(TOKEN_DELIMITER))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private void add(long id, String name, String description) {
+        String[] nameTokens = addPostings(nameIndex, id, tokenize(name));
+        String[] descriptionTokens = addPostings(descriptionIndex, id, tokenize(description));
+        IndexedItem item = new IndexedItem(nameTokens, descriptionTokens);
+        indexedItems.put(id, item);
+        itemsMemoryBytes += item.memoryBytes();
+    }
+
+    private void remove(long id) {
+        IndexedItem item = indexedItems.remove(id);
+        if (item == null) {
+            return;
+        }
+        itemsMemoryBytes -= item.memoryBytes();
+        for (String token : item.nameTokens) {
+            nameIndex.remove(token, id);
+        }
+        for (String token : item.descriptionTokens) {
+            descriptionIndex.remove(token, id);
+        }
+    }
+
+    private static String[] addPostings(TokenDictionary index, long id, List<String> tokens) {
+        String[] canonical = new String[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            canonical[i] = index.add(tokens.get(i), id);
+        }
+        return canonical;
+    }
+
+    private static long[] union(long[] first, long[] second) {
+        long[] result = new long[first.length + second.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < first.length || j < second.length) {
+            if (j == second.length || (i < first.length && first[i] < second[j])) {
+                result[k++] = first[i++];
+            } else if (i == first.length || second[j] < first[i]) {
+                result[k++] = second[j++];
+            } else {
+                result[k++] = first[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    private static long[] intersect(long[] first, long[] second) {
+        long[] result = new long[Math.min(first.length, second.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (second[j] < first[i]) {
+                j++;
+            } else {
+                result[k++] = first[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    private static final class IndexedItem {
+        private final String[] nameTokens;
+        private final String[] descriptionTokens;
+
+        private IndexedItem(String[] nameTokens, String[] descriptionTokens) {
+            this.nameTokens = nameTokens;
+            this.descriptionTokens = descriptionTokens;
+        }
+
+        private long memoryBytes() {
+            return HASH_ENTRY_OVERHEAD + 2 * ARRAY_OVERHEAD
+                    + REFERENCE_SIZE * (nameTokens.length + descriptionTokens.length);
+        }
+    }
+}
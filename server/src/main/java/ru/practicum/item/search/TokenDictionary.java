@@ -0,0 +1,156 @@
+package ru.practicum.item.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Словарь одного поля индекса: слово → id вещей и триграмма → слова, в которых она встречается.
+ * По триграммам находятся слова, содержащие подстроку запроса, без просмотра всего словаря:
+ * проверяются только слова с самой редкой триграммой запроса. Не потокобезопасен, блокировки держит
+ * ItemSearchIndex.
+ */
+final class TokenDictionary {
+
+    static final int GRAM_LENGTH = 3;
+
+    private static final long TREE_ENTRY_OVERHEAD = 40;
+    private static final long HASH_ENTRY_OVERHEAD = 48;
+    private static final long HASH_SET_OVERHEAD = 64;
+    private static final long STRING_OVERHEAD = 40;
+
+    private final NavigableMap<String, LongPostingList> postings = new TreeMap<>();
+    private final Map<String, Set<String>> tokensByGram = new HashMap<>();
+    private volatile long memoryBytes;
+
+    /**
+     * Добавляет id в список слова и возвращает экземпляр слова из словаря, чтобы вещи делили одну строку.
+     */
+    String add(String token, long id) {
+        LongPostingList list = postings.get(token);
+        if (list == null) {
+            list = new LongPostingList();
+            postings.put(token, list);
+            memoryBytes += TREE_ENTRY_OVERHEAD + stringBytes(token) + list.memoryBytes();
+            addGrams(token);
+        }
+        long before = list.memoryBytes();
+        list.add(id);
+        memoryBytes += list.memoryBytes() - before;
+        return postings.ceilingKey(token);
+    }
+
+    void remove(String token, long id) {
+        LongPostingList list = postings.get(token);
+        if (list == null) {
+            return;
+        }
+        long before = list.memoryBytes();
+        list.remove(id);
+        memoryBytes += list.memoryBytes() - before;
+        if (list.isEmpty()) {
+            postings.remove(token);
+            memoryBytes -= TREE_ENTRY_OVERHEAD + stringBytes(token) + list.memoryBytes();
+            removeGrams(token);
+        }
+    }
+
+    /**
+     * Возвращает отсортированные id вещей, в словах которых term встречается как подстрока.
+     * Слово запроса короче GRAM_LENGTH по триграммам не ищется.
+     */
+    long[] collect(String term) {
+        Set<String> candidates = null;
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            Set<String> tokens = tokensByGram.get(term.substring(i, i + GRAM_LENGTH));
+            if (tokens == null) {
+                return new long[0];
+            }
+            if (candidates == null || tokens.size() < candidates.size()) {
+                candidates = tokens;
+            }
+        }
+        if (candidates == null) {
+            return new long[0];
+        }
+
+        List<LongPostingList> matches = new ArrayList<>();
+        int total = 0;
+        for (String token : candidates) {
+            if (token.contains(term)) {
+                LongPostingList list = postings.get(token);
+                matches.add(list);
+                total += list.size();
+            }
+        }
+        long[] ids = new long[total];
+        int offset = 0;
+        for (LongPostingList list : matches) {
+            offset = list.copyTo(ids, offset);
+        }
+        if (matches.size() > 1) {
+            Arrays.sort(ids);
+            return distinct(ids);
+        }
+        return ids;
+    }
+
+    long memoryBytes() {
+        return memoryBytes;
+    }
+
+    void clear() {
+        postings.clear();
+        tokensByGram.clear();
+        memoryBytes = 0;
+    }
+
+    private void addGrams(String token) {
+        for (int i = 0; i + GRAM_LENGTH <= token.length(); i++) {
+            String gram = token.substring(i, i + GRAM_LENGTH);
+            Set<String> tokens = tokensByGram.get(gram);
+            if (tokens == null) {
+                tokens = new HashSet<>();
+                tokensByGram.put(gram, tokens);
+                memoryBytes += HASH_ENTRY_OVERHEAD + stringBytes(gram) + HASH_SET_OVERHEAD;
+            }
+            if (tokens.add(token)) {
+                memoryBytes += HASH_ENTRY_OVERHEAD;
+            }
+        }
+    }
+
+    private void removeGrams(String token) {
+        for (int i = 0; i + GRAM_LENGTH <= token.length(); i++) {
+            String gram = token.substring(i, i + GRAM_LENGTH);
+            Set<String> tokens = tokensByGram.get(gram);
+            if (tokens != null && tokens.remove(token)) {
+                memoryBytes -= HASH_ENTRY_OVERHEAD;
+                if (tokens.isEmpty()) {
+                    tokensByGram.remove(gram);
+                    memoryBytes -= HASH_ENTRY_OVERHEAD + stringBytes(gram) + HASH_SET_OVERHEAD;
+                }
+            }
+        }
+    }
+
+    private static long stringBytes(String value) {
+        return STRING_OVERHEAD + 2L * value.length();
+    }
+
+    private static long[] distinct(long[] sorted) {
+        int k = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[k++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, k);
+    }
+}
@@ -3,19 +3,35 @@ package ru.practicum.item.service;
 import ru.practicum.item.dto.CommentDto;
 import ru.practicum.item.dto.ItemBookingDto;
 import ru.practicum.item.dto.ItemDto;
+import ru.practicum.item.dto.ItemImportResultDto;
+import ru.practicum.pagination.CursorPage;
 
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     ItemDto createItem(Long userId, ItemDto itemDto);
 
+    void importItems(Long userId, Iterator<ItemDto> items, Consumer<ItemImportResultDto> results);
+
     ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto);
 
     ItemBookingDto getItemById(Long userId, Long itemId);
 
+    /**
+     * Вещи по списку id в порядке запроса, как их вернул бы getItemById. Ненайденные id пропускаются.
+     */
+    List<ItemBookingDto> getItemsByIds(Long userId, List<Long> itemIds);
+
     List<ItemBookingDto> getItems(Long userId, int from, int size);
 
-    List<ItemDto> searchItem(String text, int from, int size);
+    CursorPage<ItemBookingDto> getItems(Long userId, String cursor, int size);
+
+    List<ItemDto> searchItem(String text, LocalDateTime start, LocalDateTime end, int from, int size);
+
+    CursorPage<ItemDto> searchItem(String text, LocalDateTime start, LocalDateTime end, String cursor, int size);
 
     CommentDto createComment(Long itemId, Long userId, CommentDto commentDto);
 }
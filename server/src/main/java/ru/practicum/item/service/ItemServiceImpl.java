@@ -2,10 +2,12 @@ package ru.practicum.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.booking.dto.BookingDateDto;
+import ru.practicum.booking.index.BookingIntervalIndex;
 import ru.practicum.booking.mapper.BookingMapper;
 import ru.practicum.booking.model.Booking;
 import ru.practicum.booking.model.Status;
@@ -15,20 +17,31 @@ import ru.practicum.exception.NotFoundException;
 import ru.practicum.item.dto.CommentDto;
 import ru.practicum.item.dto.ItemBookingDto;
 import ru.practicum.item.dto.ItemDto;
+import ru.practicum.item.dto.ItemImportResultDto;
 import ru.practicum.item.mapper.CommentMapper;
 import ru.practicum.item.mapper.ItemMapper;
 import ru.practicum.item.model.Comment;
 import ru.practicum.item.model.Item;
 import ru.practicum.item.repository.CommentRepository;
 import ru.practicum.item.repository.ItemRepository;
+import ru.practicum.item.repository.RankedItem;
+import ru.practicum.item.search.ItemSearchHit;
+import ru.practicum.item.search.ItemSearchIndex;
+import ru.practicum.pagination.Cursor;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.pagination.OffsetPageRequest;
 import ru.practicum.request.model.ItemRequest;
 import ru.practicum.request.repository.ItemRequestRepository;
+import ru.practicum.user.cache.UserExistenceCache;
 import ru.practicum.user.model.User;
 import ru.practicum.user.repository.UserRepository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,11 +49,24 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ItemServiceImpl implements ItemService {
 
+    private static final int MAX_SEARCH_TERMS = 10;
+    // Размеры колонок items.name и items.description
+    private static final int MAX_NAME_LENGTH = 50;
+    private static final int MAX_DESCRIPTION_LENGTH = 500;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository requestRepository;
+    private final ItemSearchIndex searchIndex;
+    private final BookingIntervalIndex bookingIndex;
+    private final Clock clock;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${shareit.item.import.batch-size:500}")
+    private int importBatchSize;
 
     @Override
     public ItemDto createItem(Long userId, ItemDto itemDto) {
@@ -51,7 +77,47 @@ public class ItemServiceImpl implements ItemService {
                     () -> new NotFoundException(String.format("Запрос id %d не найден", itemDto.getRequestId())));
             item.setItemRequest(request);
         }
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        Item saved = itemRepository.save(item);
+        searchIndex.update(saved);
+        return ItemMapper.toItemDto(saved);
+    }
+
+    /**
+     * Сохраняет вещи из потока пачками по shareit.item.import.batch-size, каждую пачку в своей транзакции.
+     * Результат по каждой строке передается в results после сохранения ее пачки, поэтому в памяти
+     * одновременно находится не больше одной пачки. Неразобранная строка пропускается, а если поток
+     * нельзя читать дальше, импорт останавливается после сохранения уже прочитанных строк. Если пачка
+     * не сохранилась целиком, ее строки сохраняются по одной, и ошибку получают только сами неудачные строки.
+     */
+    @Override
+    public void importItems(Long userId, Iterator<ItemDto> items, Consumer<ItemImportResultDto> results) {
+        userExistenceCache.check(userId);
+        List<ImportLine> batch = new ArrayList<>();
+        int line = 0;
+        while (true) {
+            try {
+                if (!items.hasNext()) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                log.info(String.format("Импорт вещей пользователя %d остановлен на строке %d", userId, line + 1));
+                importBatch(userId, batch, results);
+                results.accept(importFailure(line + 1, "Некорректный JSON, импорт остановлен"));
+                return;
+            }
+            line++;
+            ItemDto itemDto;
+            try {
+                itemDto = items.next();
+            } catch (RuntimeException e) {
+                itemDto = null;
+            }
+            batch.add(new ImportLine(line, itemDto, validateImportedItem(itemDto)));
+            if (batch.size() >= importBatchSize) {
+                importBatch(userId, batch, results);
+            }
+        }
+        importBatch(userId, batch, results);
     }
 
     @Override
@@ -73,7 +139,9 @@ public class ItemServiceImpl implements ItemService {
             if (itemDto.getAvailable() != null) {
                 item.setAvailable(itemDto.getAvailable());
             }
-            return ItemMapper.toItemDto(itemRepository.save(item));
+            Item saved = itemRepository.save(item);
+            searchIndex.update(saved);
+            return ItemMapper.toItemDto(saved);
         }
     }
 
@@ -81,25 +149,37 @@ public class ItemServiceImpl implements ItemService {
     @Transactional(readOnly = true)
     public ItemBookingDto getItemById(Long userId, Long itemId) {
         Item item = checkItemExistence(itemId);
-        checkUserExistence(userId);
+        boolean isOwner = Objects.equals(item.getOwner().getId(), userId);
+        if (!isOwner && !userExistenceCache.exists(userId)) {
+            log.info(String.format("Пользователя с id %d не найден", userId));
+            throw new NotFoundException(String.format("Пользователь id %d  не найден", userId));
+        }
         ItemBookingDto itemBookingDto = ItemMapper.toItemBookingDto(item);
 
-        itemBookingDto.setComments(commentRepository.findAllByItemId(itemId)
+        itemBookingDto.setComments(commentRepository.findAllWithAuthorByItemId(itemId)
                 .stream()
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList()));
 
-        Optional<Booking> last = bookingRepository.findFirstByItemIdAndEndIsBeforeAndStatusIs(
-                itemId, LocalDateTime.now(), Status.APPROVED, Sort.by(Sort.Direction.DESC, "end"));
-        Optional<Booking> next = bookingRepository.findFirstByItemIdAndEndIsAfterAndStatusIs(
-                itemId, LocalDateTime.now(), Status.APPROVED, Sort.by(Sort.Direction.ASC, "end"));
-
-        if (!Objects.equals(item.getOwner().getId(), userId)) {
+        if (!isOwner) {
             return itemBookingDto;
         }
 
-        itemBookingDto.setLastBooking(last.map(BookingMapper::toBookingDateDto).orElse(null));
-        itemBookingDto.setNextBooking(next.map(BookingMapper::toBookingDateDto).orElse(null));
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (bookingIndex.isEnabled()) {
+            itemBookingDto.setLastBooking(bookingIndex.getLastBooking(itemId, now));
+            itemBookingDto.setNextBooking(bookingIndex.getNextBooking(itemId, now));
+        } else {
+            for (Booking booking : bookingRepository.findLastAndNextBookingsByItemId(itemId, now, Status.APPROVED)) {
+                if (booking.getEnd().isBefore(now)) {
+                    if (itemBookingDto.getLastBooking() == null) {
+                        itemBookingDto.setLastBooking(BookingMapper.toBookingDateDto(booking));
+                    }
+                } else if (itemBookingDto.getNextBooking() == null) {
+                    itemBookingDto.setNextBooking(BookingMapper.toBookingDateDto(booking));
+                }
+            }
+        }
 
         if (itemBookingDto.getLastBooking() == null && itemBookingDto.getNextBooking() != null) {
             itemBookingDto.setLastBooking(itemBookingDto.getNextBooking());
@@ -109,31 +189,250 @@ public class ItemServiceImpl implements ItemService {
         return itemBookingDto;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemBookingDto> getItemsByIds(Long userId, List<Long> itemIds) {
+        List<Long> ids = itemIds.stream()
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Long> ownItemIds = items.values().stream()
+                .filter(item -> Objects.equals(item.getOwner().getId(), userId))
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        if (ownItemIds.size() < ids.size() && !userExistenceCache.exists(userId)) {
+            log.info(String.format("Пользователя с id %d не найден", userId));
+            throw new NotFoundException(String.format("Пользователь id %d  не найден", userId));
+        }
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        Map<Long, List<CommentDto>> comments = findComments(new ArrayList<>(items.keySet()));
+        Map<Long, BookingDateDto> lastBookings = new HashMap<>();
+        Map<Long, BookingDateDto> nextBookings = new HashMap<>();
+        if (!ownItemIds.isEmpty()) {
+            findLastAndNextBookings(ownItemIds, now, lastBookings, nextBookings);
+        }
+
+        List<ItemBookingDto> itemBookingDtoList = new ArrayList<>();
+        for (Long itemId : ids) {
+            Item item = items.get(itemId);
+            if (item == null) {
+                continue;
+            }
+            ItemBookingDto itemBookingDto = ItemMapper.toItemBookingDto(item);
+            itemBookingDto.setComments(comments.getOrDefault(itemId, new ArrayList<>()));
+            // Как в getItemById: при отсутствии прошедшей брони ближайшая будущая отдается как последняя
+            BookingDateDto last = lastBookings.get(itemId);
+            itemBookingDto.setLastBooking(last == null ? nextBookings.get(itemId) : last);
+            itemBookingDto.setNextBooking(last == null ? null : nextBookings.get(itemId));
+            itemBookingDtoList.add(itemBookingDto);
+        }
+        return itemBookingDtoList;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ItemBookingDto> getItems(Long userId, int from, int size) {
-        PageRequest pageRequest = PageRequest.of(from / size, size);
+        return toItemBookingDtoList(itemRepository.findAllByOwnerIdOrderByIdAsc(userId,
+                OffsetPageRequest.of(from, size)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ItemBookingDto> getItems(Long userId, String cursor, int size) {
+        Cursor after = Cursor.decode(cursor, 1);
+        List<Item> items = itemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(userId,
+                after == null ? 0L : after.getLong(0), OffsetPageRequest.of(0, size));
+        String nextCursor = items.size() < size ? null : Cursor.encode(items.get(items.size() - 1).getId());
+        return new CursorPage<>(toItemBookingDtoList(items), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemDto> searchItem(String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        checkSearchWindow(start, end);
+        List<String> terms = splitSearchText(text);
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        OffsetPageRequest pageRequest = OffsetPageRequest.of(from, size);
+        // Индекс поиска не знает о бронированиях, поэтому поиск свободных вещей всегда идет через БД.
+        // Слова со знаками препинания индекс не находит так же, как LIKE, их тоже ищет БД.
+        if (!searchIndex.isEnabled() || start != null || !searchIndex.canSearch(terms)) {
+            return itemRepository.searchAvailableItems(terms, start, end, pageRequest).stream()
+                    .map(ItemMapper::toItemDto)
+                    .collect(Collectors.toList());
+        }
+
+        return loadInOrder(searchIndex.search(terms, pageRequest.getOffset(), pageRequest.getPageSize()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ItemDto> searchItem(String text, LocalDateTime start, LocalDateTime end,
+                                          String cursor, int size) {
+        checkSearchWindow(start, end);
+        List<String> terms = splitSearchText(text);
+        if (terms.isEmpty()) {
+            return new CursorPage<>(new ArrayList<>(), null);
+        }
+        Cursor after = Cursor.decode(cursor, 2);
+        Integer afterRank = after == null ? null : after.getInt(0);
+        Long afterId = after == null ? null : after.getLong(1);
+
+        List<ItemDto> items;
+        String nextCursor = null;
+        if (!searchIndex.isEnabled() || start != null || !searchIndex.canSearch(terms)) {
+            List<RankedItem> rankedItems = itemRepository.searchAvailableItemsAfter(terms, start, end,
+                    afterRank, afterId, size);
+            items = rankedItems.stream()
+                    .map(rankedItem -> ItemMapper.toItemDto(rankedItem.getItem()))
+                    .collect(Collectors.toList());
+            if (rankedItems.size() == size) {
+                RankedItem last = rankedItems.get(size - 1);
+                nextCursor = Cursor.encode(last.getRank(), last.getItem().getId());
+            }
+        } else {
+            List<ItemSearchHit> hits = searchIndex.searchAfter(terms, afterRank, afterId, size);
+            items = loadInOrder(hits.stream()
+                    .map(ItemSearchHit::getItemId)
+                    .collect(Collectors.toList()));
+            if (hits.size() == size) {
+                ItemSearchHit last = hits.get(size - 1);
+                nextCursor = Cursor.encode(last.getRank(), last.getItemId());
+            }
+        }
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    private void importBatch(Long userId, List<ImportLine> batch, Consumer<ItemImportResultDto> results) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            saveImportLines(userId, batch);
+        } catch (DataAccessException e) {
+            // Откат пачки не должен стоить ошибки остальным строкам: сохраняем их по одной
+            log.warn(String.format("Не удалось сохранить пачку вещей пользователя %d, сохранение по одной", userId),
+                    e);
+            for (ImportLine importLine : batch) {
+                if (importLine.error != null) {
+                    continue;
+                }
+                try {
+                    saveImportLines(userId, List.of(importLine));
+                } catch (DataAccessException lineException) {
+                    log.warn(String.format("Не удалось сохранить вещь из строки %d", importLine.line),
+                            lineException);
+                    importLine.item = null;
+                    importLine.error = "Не удалось сохранить вещь";
+                }
+            }
+        }
+        for (ImportLine importLine : batch) {
+            if (importLine.error == null) {
+                searchIndex.update(importLine.item);
+            }
+        }
+        for (ImportLine importLine : batch) {
+            results.accept(importLine.error == null
+                    ? ItemImportResultDto.builder().line(importLine.line).id(importLine.item.getId()).build()
+                    : importFailure(importLine.line, importLine.error));
+        }
+        batch.clear();
+    }
 
-        List<ItemBookingDto> itemBookingDtoList = itemRepository.findAllByOwnerIdOrderByIdAsc(userId, pageRequest)
+    private void saveImportLines(Long userId, List<ImportLine> lines) {
+        transactionTemplate.executeWithoutResult(status -> saveImportBatch(userId, lines));
+    }
+
+    private void saveImportBatch(Long userId, List<ImportLine> batch) {
+        User owner = userRepository.getReferenceById(userId);
+        Set<Long> requestIds = batch.stream()
+                .filter(importLine -> importLine.error == null && importLine.itemDto.getRequestId() != null)
+                .map(importLine -> importLine.itemDto.getRequestId())
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = requestIds.isEmpty() ? Map.of() : requestRepository.findAllById(requestIds)
                 .stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        List<Item> items = new ArrayList<>();
+        for (ImportLine importLine : batch) {
+            if (importLine.error != null) {
+                continue;
+            }
+            Long requestId = importLine.itemDto.getRequestId();
+            if (requestId != null && !requests.containsKey(requestId)) {
+                importLine.error = String.format("Запрос id %d не найден", requestId);
+                continue;
+            }
+            Item item = ItemMapper.toItem(importLine.itemDto, owner);
+            item.setId(null);
+            item.setItemRequest(requestId == null ? null : requests.get(requestId));
+            importLine.item = item;
+            items.add(item);
+        }
+        itemRepository.saveAll(items);
+    }
+
+    private String validateImportedItem(ItemDto itemDto) {
+        if (itemDto == null) {
+            return "Некорректный JSON";
+        }
+        if (itemDto.getName() == null || itemDto.getName().isBlank()) {
+            return "Введите название";
+        }
+        if (itemDto.getName().length() > MAX_NAME_LENGTH) {
+            return String.format("Название длиннее %d символов", MAX_NAME_LENGTH);
+        }
+        if (itemDto.getDescription() == null || itemDto.getDescription().isBlank()) {
+            return "Добавьте пару слов об этой вещи";
+        }
+        if (itemDto.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return String.format("Описание длиннее %d символов", MAX_DESCRIPTION_LENGTH);
+        }
+        if (itemDto.getAvailable() == null) {
+            return "Доступна ли вещь для аренды?";
+        }
+        return null;
+    }
+
+    private ItemImportResultDto importFailure(int line, String error) {
+        return ItemImportResultDto.builder().line(line).error(error).build();
+    }
+
+    private List<ItemBookingDto> toItemBookingDtoList(List<Item> items) {
+        List<ItemBookingDto> itemBookingDtoList = items.stream()
                 .map(ItemMapper::toItemBookingDto)
                 .collect(Collectors.toList());
 
-        for (ItemBookingDto itemBookingDto : itemBookingDtoList) {
+        if (itemBookingDtoList.isEmpty()) {
+            return itemBookingDtoList;
+        }
+
+        List<Long> itemIds = itemBookingDtoList.stream()
+                .map(ItemBookingDto::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now(clock);
 
-            itemBookingDto.setComments(commentRepository.findAllByItemId(itemBookingDto.getId())
-                    .stream().map(CommentMapper::toCommentDto).collect(Collectors.toList()));
+        Map<Long, List<CommentDto>> comments = findComments(itemIds);
+        Map<Long, BookingDateDto> lastBookings = new HashMap<>();
+        Map<Long, BookingDateDto> nextBookings = new HashMap<>();
+        findLastAndNextBookings(itemIds, now, lastBookings, nextBookings);
 
-            Optional<Booking> last = bookingRepository.findFirstByItemIdAndEndIsBeforeAndStatusIs(
-                    itemBookingDto.getId(), LocalDateTime.now(), Status.APPROVED, Sort.by(Sort.Direction.DESC, "end"));
+        for (ItemBookingDto itemBookingDto : itemBookingDtoList) {
+            Long itemId = itemBookingDto.getId();
 
-            Optional<Booking> next = bookingRepository.findFirstByItemIdAndEndIsAfterAndStatusIs(
-                    itemBookingDto.getId(), LocalDateTime.now(), Status.APPROVED, Sort.by(Sort.Direction.ASC, "end"));
+            itemBookingDto.setComments(comments.getOrDefault(itemId, new ArrayList<>()));
 
-            itemBookingDto.setLastBooking(
-                    last.isEmpty() ? new BookingDateDto() : BookingMapper.toBookingDateDto(last.get()));
-            itemBookingDto.setNextBooking(
-                    next.isEmpty() ? new BookingDateDto() : BookingMapper.toBookingDateDto(next.get()));
+            BookingDateDto last = lastBookings.get(itemId);
+            BookingDateDto next = nextBookings.get(itemId);
+
+            itemBookingDto.setLastBooking(last == null ? new BookingDateDto() : last);
+            itemBookingDto.setNextBooking(next == null ? new BookingDateDto() : next);
         }
 
         itemBookingDtoList.sort(Comparator.comparing(o -> o.getLastBooking().getStart(),
@@ -151,15 +450,55 @@ public class ItemServiceImpl implements ItemService {
         return itemBookingDtoList;
     }
 
+    private Map<Long, List<CommentDto>> findComments(List<Long> itemIds) {
+        return commentRepository.findAllByItemIdIn(itemIds)
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+    }
+
+    private void findLastAndNextBookings(List<Long> itemIds, LocalDateTime now,
+                                         Map<Long, BookingDateDto> lastBookings,
+                                         Map<Long, BookingDateDto> nextBookings) {
+        if (bookingIndex.isEnabled()) {
+            for (Long itemId : itemIds) {
+                lastBookings.put(itemId, bookingIndex.getLastBooking(itemId, now));
+                nextBookings.put(itemId, bookingIndex.getNextBooking(itemId, now));
+            }
+        } else {
+            lastBookings.putAll(mapByItemId(bookingRepository.findLastBookingsByItemIds(itemIds, now,
+                    Status.APPROVED)));
+            nextBookings.putAll(mapByItemId(bookingRepository.findNextBookingsByItemIds(itemIds, now,
+                    Status.APPROVED)));
+        }
+    }
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<ItemDto> searchItem(String text, int from, int size) {
-        if (text.isEmpty()) {
+    private void checkSearchWindow(LocalDateTime start, LocalDateTime end) {
+        if ((start == null) != (end == null)) {
+            throw new BadRequestException("Для поиска свободных вещей нужно указать и начало, и окончание");
+        }
+        if (start != null && !start.isBefore(end)) {
+            throw new BadRequestException("Некорректная дата бронирования");
+        }
+    }
+
+    private List<String> splitSearchText(String text) {
+        return Arrays.stream(text.trim().split("\\s+"))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .limit(MAX_SEARCH_TERMS)
+                .collect(Collectors.toList());
+    }
+
+    private List<ItemDto> loadInOrder(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
             return new ArrayList<>();
         }
-        PageRequest pageRequest = PageRequest.of((from / size), size);
-        return itemRepository.searchItemsByText(text, pageRequest).stream()
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return itemIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
@@ -170,7 +509,7 @@ public class ItemServiceImpl implements ItemService {
         Item item = checkItemExistence(itemId);
         User author = checkUserExistence(authorId);
         Optional<Booking> booking = bookingRepository.findFirstByItemAndBookerAndEndIsBeforeOrderByEnd(
-                item, author, LocalDateTime.now());
+                item, author, LocalDateTime.now(clock));
         if (booking.isEmpty()) {
             log.warn((String.format("Пользователь %s %d никогда не бронировал %s",
                     author.getName(), authorId, item.getName())));
@@ -198,4 +537,23 @@ public class ItemServiceImpl implements ItemService {
             throw new NotFoundException(String.format("Объект id %d  не найден", itemId));
         });
     }
+
+    private Map<Long, BookingDateDto> mapByItemId(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), BookingMapper::toBookingDateDto,
+                        (first, second) -> first));
+    }
+
+    private static class ImportLine {
+        private final int line;
+        private final ItemDto itemDto;
+        private String error;
+        private Item item;
+
+        ImportLine(int line, ItemDto itemDto, String error) {
+            this.line = line;
+            this.itemDto = itemDto;
+            this.error = error;
+        }
+    }
 }
@@ -0,0 +1,75 @@
+package ru.practicum.pagination;
+
+import ru.practicum.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор keyset-пагинации: значения ключа последней записи страницы в base64url.
+ * Пустой курсор означает первую страницу.
+ */
+public final class Cursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String[] values;
+
+    private Cursor(String[] values) {
+        this.values = values;
+    }
+
+    public static String encode(Object... values) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(values[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String cursor, int size) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] values = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, -1);
+            if (values.length != size) {
+                throw new BadRequestException("Некорректный курсор: " + cursor);
+            }
+            return new Cursor(values);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Некорректный курсор: " + cursor);
+        }
+    }
+
+    public long getLong(int index) {
+        try {
+            return Long.parseLong(values[index]);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+    }
+
+    public int getInt(int index) {
+        try {
+            return Integer.parseInt(values[index]);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+    }
+
+    public LocalDateTime getDateTime(int index) {
+        try {
+            return LocalDateTime.parse(values[index]);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.request.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.request.dto.ItemRequestDto;
@@ -26,17 +27,26 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<ItemRequestResponseDto> getItemRequests(@RequestHeader(HEADER) Long userId) {
-        return itemRequestService.getItemRequests(userId);
+    public List<ItemRequestResponseDto> getItemRequests(@RequestHeader(HEADER) Long userId,
+                                                        @RequestParam(value = "from", defaultValue = "0",
+                                                                required = false) int from,
+                                                        @RequestParam(value = "size", required = false) Integer size) {
+        if (size == null) {
+            return itemRequestService.getItemRequests(userId);
+        }
+        return itemRequestService.getItemRequests(userId, from, size);
     }
 
     @GetMapping("/all")
-    public List<ItemRequestResponseDto> getAllItemRequests(@RequestHeader(HEADER) Long userId,
-                                                           @RequestParam(value = "from",
-                                                                   defaultValue = "0", required = false) int from,
-                                                           @RequestParam(value = "size", defaultValue = "10",
-                                                                   required = false) int size) {
-        return itemRequestService.getAllItemRequests(userId, from, size);
+    public ResponseEntity<List<ItemRequestResponseDto>> getAllItemRequests(
+            @RequestHeader(HEADER) Long userId,
+            @RequestParam(value = "from", defaultValue = "0", required = false) int from,
+            @RequestParam(value = "size", defaultValue = "10", required = false) int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        if (cursor == null) {
+            return ResponseEntity.ok(itemRequestService.getAllItemRequests(userId, from, size));
+        }
+        return itemRequestService.getAllItemRequests(userId, cursor, size).toResponseEntity();
     }
 
     @GetMapping("/{requestId}")
@@ -5,13 +5,24 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findAllByRequestorId(Long userId);
+    List<ItemRequest> findAllByRequestorIdOrderByCreatedDescIdDesc(Long userId);
 
+    List<ItemRequest> findAllByRequestorIdOrderByCreatedDescIdDesc(Long userId, Pageable p);
+
+    // Лента чужих запросов по индексу IX_REQUESTS_CREATED (create_date DESC, request_id DESC)
+    List<ItemRequest> findAllByRequestorIdNotOrderByCreatedDescIdDesc(Long userId, Pageable p);
+
+    // Продолжение ленты после (afterCreated, afterId). Условие ir.created <= ?2 дублирует курсор,
+    // чтобы сканирование индекса начиналось с позиции курсора, а не с начала ленты.
     @Query("select ir from ItemRequest ir " +
-            "where ir.requestor.id != ?1")
-    List<ItemRequest> findAllPageable(Long userId, Pageable p);
+            "where ir.requestor.id != ?1 " +
+            "and ir.created <= ?2 " +
+            "and (ir.created < ?2 or (ir.created = ?2 and ir.id < ?3)) " +
+            "order by ir.created desc, ir.id desc")
+    List<ItemRequest> findAllAfter(Long userId, LocalDateTime afterCreated, Long afterId, Pageable p);
 }
@@ -1,6 +1,7 @@
 package ru.practicum.request.service;
 
 import ru.practicum.request.dto.ItemRequestDto;
+import ru.practicum.pagination.CursorPage;
 import ru.practicum.request.dto.ItemRequestResponseDto;
 
 import java.util.List;
@@ -11,8 +12,12 @@ public interface ItemRequestService {
 
     List<ItemRequestResponseDto> getItemRequests(Long userId);
 
+    List<ItemRequestResponseDto> getItemRequests(Long userId, int from, int size);
+
     List<ItemRequestResponseDto> getAllItemRequests(Long userId, int from, int size);
 
+    CursorPage<ItemRequestResponseDto> getAllItemRequests(Long userId, String cursor, int size);
+
     ItemRequestResponseDto getItemRequestById(Long userId, Long requestId);
 
 }
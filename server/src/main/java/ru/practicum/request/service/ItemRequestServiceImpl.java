@@ -2,23 +2,28 @@ package ru.practicum.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import ru.practicum.exception.NotFoundException;
+import ru.practicum.item.dto.ItemDto;
 import ru.practicum.item.mapper.ItemMapper;
 import ru.practicum.item.repository.ItemRepository;
+import ru.practicum.pagination.Cursor;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.pagination.OffsetPageRequest;
 import ru.practicum.request.dto.ItemRequestDto;
 import ru.practicum.request.dto.ItemRequestResponseDto;
 import ru.practicum.request.mapper.ItemRequestMapper;
 import ru.practicum.request.model.ItemRequest;
 import ru.practicum.request.repository.ItemRequestRepository;
+import ru.practicum.user.cache.UserExistenceCache;
 import ru.practicum.user.model.User;
 import ru.practicum.user.repository.UserRepository;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +33,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository requestRepository;
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
     private final ItemRepository itemRepository;
 
     @Override
@@ -43,8 +49,22 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     @Transactional
     public List<ItemRequestResponseDto> getItemRequests(Long userId) {
-        checkUserExistence(userId);
-        List<ItemRequestResponseDto> itemRequestResponseDtoList = requestRepository.findAllByRequestorId(userId)
+        userExistenceCache.check(userId);
+        List<ItemRequestResponseDto> itemRequestResponseDtoList = requestRepository
+                .findAllByRequestorIdOrderByCreatedDescIdDesc(userId)
+                .stream()
+                .map(ItemRequestMapper::mapToItemRequestResponseDto)
+                .collect(Collectors.toList());
+
+        return setItems(itemRequestResponseDtoList);
+    }
+
+    @Override
+    @Transactional
+    public List<ItemRequestResponseDto> getItemRequests(Long userId, int from, int size) {
+        userExistenceCache.check(userId);
+        List<ItemRequestResponseDto> itemRequestResponseDtoList = requestRepository
+                .findAllByRequestorIdOrderByCreatedDescIdDesc(userId, OffsetPageRequest.of(from, size))
                 .stream()
                 .map(ItemRequestMapper::mapToItemRequestResponseDto)
                 .collect(Collectors.toList());
@@ -55,10 +75,11 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     @Transactional
     public List<ItemRequestResponseDto> getAllItemRequests(Long userId, int from, int size) {
-        checkUserExistence(userId);
+        userExistenceCache.check(userId);
 
-        PageRequest pageRequest = PageRequest.of(from / size, size);
-        List<ItemRequestResponseDto> itemRequestResponseDtoList = requestRepository.findAllPageable(userId, pageRequest)
+        OffsetPageRequest pageRequest = OffsetPageRequest.of(from, size);
+        List<ItemRequestResponseDto> itemRequestResponseDtoList = requestRepository
+                .findAllByRequestorIdNotOrderByCreatedDescIdDesc(userId, pageRequest)
                 .stream()
                 .map(ItemRequestMapper::mapToItemRequestResponseDto)
                 .collect(Collectors.toList());
@@ -66,10 +87,31 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return setItems(itemRequestResponseDtoList);
     }
 
+    @Override
+    @Transactional
+    public CursorPage<ItemRequestResponseDto> getAllItemRequests(Long userId, String cursor, int size) {
+        userExistenceCache.check(userId);
+
+        Cursor after = Cursor.decode(cursor, 2);
+        OffsetPageRequest pageRequest = OffsetPageRequest.of(0, size);
+        List<ItemRequest> requests = after == null
+                ? requestRepository.findAllByRequestorIdNotOrderByCreatedDescIdDesc(userId, pageRequest)
+                : requestRepository.findAllAfter(userId, after.getDateTime(0), after.getLong(1), pageRequest);
+
+        String nextCursor = null;
+        if (requests.size() == size) {
+            ItemRequest last = requests.get(size - 1);
+            nextCursor = Cursor.encode(last.getCreated(), last.getId());
+        }
+        return new CursorPage<>(setItems(requests.stream()
+                .map(ItemRequestMapper::mapToItemRequestResponseDto)
+                .collect(Collectors.toList())), nextCursor);
+    }
+
     @Override
     @Transactional
     public ItemRequestResponseDto getItemRequestById(Long userId, Long requestId) {
-        checkUserExistence(userId);
+        userExistenceCache.check(userId);
         ItemRequest request = requestRepository.findById(requestId).orElseThrow(
                 () -> new NotFoundException(String.format("Запрос id %d не найден", requestId)));
 
@@ -90,13 +132,20 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         });
     }
 
+    // Вещи для всей страницы запросов загружаются одним запросом
     private List<ItemRequestResponseDto> setItems(List<ItemRequestResponseDto> itemRequestResponseDtoList) {
+        if (itemRequestResponseDtoList.isEmpty()) {
+            return itemRequestResponseDtoList;
+        }
+        List<Long> requestIds = itemRequestResponseDtoList.stream()
+                .map(ItemRequestResponseDto::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemDto>> items = itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getItemRequest().getId(),
+                        Collectors.mapping(ItemMapper::toItemDto, Collectors.toList())));
         for (ItemRequestResponseDto itemRequestResponseDto : itemRequestResponseDtoList) {
-            itemRequestResponseDto.setItems(itemRepository.findAllByRequestId(itemRequestResponseDto.getId())
-                    .stream().map(ItemMapper::toItemDto).collect(Collectors.toList()));
+            itemRequestResponseDto.setItems(items.getOrDefault(itemRequestResponseDto.getId(), new ArrayList<>()));
         }
-        itemRequestResponseDtoList.sort(Comparator.comparing(ItemRequestResponseDto::getCreated,
-                Comparator.nullsLast(Comparator.reverseOrder())));
 
         return itemRequestResponseDtoList;
     }
@@ -0,0 +1,94 @@
+package ru.practicum.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.exception.NotFoundException;
+import ru.practicum.user.repository.UserRepository;
+
+import java.time.Duration;
+
+/**
+ * Общий для сервисов кэш существования пользователей по id из заголовка X-Sharer-User-Id.
+ * Найденные пользователи хранятся ttl, отсутствующие - negative-ttl, чтобы созданный на другом узле
+ * пользователь стал виден быстро. Создание и удаление пользователя на этом узле сбрасывают запись сразу,
+ * удаление на другом узле становится видно не позже чем через ttl. Попадания и промахи публикуются
+ * в метрике cache.gets{cache=shareit.user.exists}.
+ */
+@Slf4j
+@Component
+public class UserExistenceCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Boolean> cache;
+    private final boolean enabled;
+
+    public UserExistenceCache(UserRepository userRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${shareit.user.cache.ttl:1m}") Duration ttl,
+                              @Value("${shareit.user.cache.negative-ttl:1s}") Duration negativeTtl,
+                              @Value("${shareit.user.cache.maximum-size:100000}") long maximumSize) {
+        this.userRepository = userRepository;
+        this.enabled = !ttl.isZero();
+        this.cache = Caffeine.newBuilder()
+                .expireAfter(new Expiry<Long, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(Long userId, Boolean exists, long currentTime) {
+                        return (exists ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long userId, Boolean exists, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(userId, exists, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long userId, Boolean exists, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "shareit.user.exists");
+    }
+
+    public boolean exists(Long userId) {
+        if (!enabled) {
+            return userRepository.existsById(userId);
+        }
+        return cache.get(userId, userRepository::existsById);
+    }
+
+    public void check(Long userId) {
+        if (!exists(userId)) {
+            log.info(String.format("Пользователя с id %d не найден", userId));
+            throw new NotFoundException(String.format("Пользователь id %d  не найден", userId));
+        }
+    }
+
+    /**
+     * Сбрасывает запись сразу и еще раз после фиксации транзакции: иначе параллельная проверка
+     * могла бы до фиксации снова закэшировать прежнее состояние пользователя.
+     */
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package ru.practicum.user.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.user.dto.UserDto;
 import ru.practicum.user.service.UserService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
@@ -14,11 +21,33 @@ import java.util.List;
 @RequiredArgsConstructor
 @RequestMapping("/users")
 public class UserController {
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public List<UserDto> getUsers() {
-        return userService.getUsers();
+    public ResponseEntity<List<UserDto>> getUsers(@RequestParam(value = "size", required = false) Integer size,
+                                                  @RequestParam(value = "cursor", required = false) String cursor) {
+        if (size == null && cursor == null) {
+            return ResponseEntity.ok(userService.getUsers());
+        }
+        return userService.getUsers(cursor, size == null ? DEFAULT_PAGE_SIZE : size).toResponseEntity();
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        ObjectWriter writer = objectMapper.writerFor(UserDto.class);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> userService.streamUsers(user -> {
+                    try {
+                        out.write(writer.writeValueAsBytes(user));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
     }
 
     @PostMapping
@@ -36,6 +65,11 @@ public class UserController {
         return userService.getUserById(userId);
     }
 
+    @GetMapping(params = "ids")
+    public List<UserDto> getUsersByIds(@RequestParam("ids") List<Long> userIds) {
+        return userService.getUsersByIds(userIds);
+    }
+
     @DeleteMapping("/{userId}")
     public void deleteUserById(@PathVariable Long userId) {
         userService.deleteUserById(userId);
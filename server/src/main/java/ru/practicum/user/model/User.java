@@ -1,11 +1,20 @@
 package ru.practicum.user.model;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.config.SecondLevelCacheConfig;
 
 import javax.persistence.*;
+import java.util.Locale;
 
 /**
  * TODO Sprint add-controllers.
@@ -15,14 +24,29 @@ import javax.persistence.*;
 @NoArgsConstructor
 @Builder
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.USERS)
 @Table(name = "users", schema = "public")
 public class User {
     @Id
     @Column(name = "user_id", nullable = false)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     @Column(name = "name", nullable = false)
     private String name;
-    @Column(name = "email", nullable = false, unique = true)
+    @Column(name = "email", nullable = false)
     private String email;
+    // LOWER(email) под ограничением UQ_USER_EMAIL_LOWER, наружу не отдается
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Column(name = "email_lower", nullable = false)
+    private String emailLower;
+
+    @PrePersist
+    @PreUpdate
+    private void fillEmailLower() {
+        emailLower = email == null ? null : email.toLowerCase(Locale.ROOT);
+    }
 }
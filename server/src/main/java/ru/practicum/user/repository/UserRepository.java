@@ -1,10 +1,24 @@
 package ru.practicum.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.user.dto.UserDto;
 import ru.practicum.user.model.User;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    List<User> findByEmailContainingIgnoreCase(String email);
+
+    List<User> findAllByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageRequest);
+
+    // DTO-проекция не попадает в контекст персистентности, поэтому память не растет с размером таблицы
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new ru.practicum.user.dto.UserDto(u.id, u.name, u.email) from User u order by u.id")
+    Stream<UserDto> streamAll();
 }
@@ -1,17 +1,31 @@
 package ru.practicum.user.service;
 
+import ru.practicum.pagination.CursorPage;
 import ru.practicum.user.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     List<UserDto> getUsers();
 
+    CursorPage<UserDto> getUsers(String cursor, int size);
+
+    /**
+     * Передает всех пользователей по одному в порядке id, читая таблицу курсором JDBC.
+     */
+    void streamUsers(Consumer<UserDto> consumer);
+
     UserDto createUser(UserDto userDto);
 
     UserDto updateUser(Long id, UserDto userDto);
 
     UserDto getUserById(Long id);
 
+    /**
+     * Пользователи по списку id в порядке запроса. Ненайденные id пропускаются.
+     */
+    List<UserDto> getUsersByIds(List<Long> ids);
+
     void deleteUserById(Long id);
 }
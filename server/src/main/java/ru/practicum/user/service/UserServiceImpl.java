@@ -2,24 +2,39 @@ package ru.practicum.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.exception.ValidationException;
+import ru.practicum.pagination.Cursor;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.pagination.OffsetPageRequest;
+import ru.practicum.user.cache.UserExistenceCache;
 import ru.practicum.user.dto.UserDto;
 import ru.practicum.user.mapper.UserMapper;
 import ru.practicum.user.model.User;
 import ru.practicum.user.repository.UserRepository;
 
-import javax.transaction.Transactional;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserServiceImpl implements UserService {
 
+    private static final String EMAIL_CONSTRAINT = "UQ_USER_EMAIL_LOWER";
+
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
 
     @Override
     @Transactional
@@ -29,10 +44,37 @@ public class UserServiceImpl implements UserService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> getUsers(String cursor, int size) {
+        Cursor after = Cursor.decode(cursor, 1);
+        List<User> users = userRepository.findAllByIdGreaterThanOrderByIdAsc(after == null ? 0L : after.getLong(0),
+                OffsetPageRequest.of(0, size));
+        String nextCursor = users.size() < size ? null : Cursor.encode(users.get(users.size() - 1).getId());
+        return new CursorPage<>(users.stream()
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toList()), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamUsers(Consumer<UserDto> consumer) {
+        try (Stream<UserDto> users = userRepository.streamAll()) {
+            users.forEach(consumer);
+        }
+    }
+
     @Override
     @Transactional
     public UserDto createUser(UserDto userDto) {
-        User user = userRepository.save(UserMapper.toUser(userDto));
+        User user;
+        try {
+            user = userRepository.saveAndFlush(UserMapper.toUser(userDto));
+        } catch (DataIntegrityViolationException e) {
+            throw emailConflict(userDto.getEmail(), e);
+        }
+        // Id мог быть закэширован как отсутствующий до создания пользователя
+        userExistenceCache.evict(user.getId());
         return UserMapper.toUserDto(user);
     }
 
@@ -48,14 +90,13 @@ public class UserServiceImpl implements UserService {
         }
 
         if (userDto.getEmail() != null) {
-            List<User> list = userRepository.findByEmailContainingIgnoreCase(userDto.getEmail());
-            if (!list.isEmpty() && !user.getEmail().equals(userDto.getEmail())) {
-                throw new ValidationException(String.format("Пользователь с email %s уже существует", userDto.getEmail()));
-            } else {
-                user.setEmail(userDto.getEmail());
-            }
+            user.setEmail(userDto.getEmail());
+        }
+        try {
+            return UserMapper.toUserDto(userRepository.saveAndFlush(user));
+        } catch (DataIntegrityViolationException e) {
+            throw emailConflict(userDto.getEmail(), e);
         }
-        return UserMapper.toUserDto(userRepository.save(user));
     }
 
     @Override
@@ -69,6 +110,19 @@ public class UserServiceImpl implements UserService {
 
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserDto> getUsersByIds(List<Long> ids) {
+        Map<Long, User> users = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream()
+                .distinct()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional
     public void deleteUserById(Long id) {
@@ -76,6 +130,18 @@ public class UserServiceImpl implements UserService {
             throw new NotFoundException(String.format("Пользователь id %d не найден", id));
         });
         this.userRepository.deleteById(id);
+        userExistenceCache.evict(id);
     }
 
+    // Занятый email определяется по нарушению UQ_USER_EMAIL_LOWER, остальные ошибки пробрасываются как есть
+    private RuntimeException emailConflict(String email, DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException) {
+            String constraint = ((ConstraintViolationException) e.getCause()).getConstraintName();
+            if (constraint != null && constraint.toUpperCase(Locale.ROOT).contains(EMAIL_CONSTRAINT)) {
+                log.info(String.format("Пользователь с email %s уже существует", email));
+                return new ValidationException(String.format("Пользователь с email %s уже существует", email));
+            }
+        }
+        return e;
+    }
 }
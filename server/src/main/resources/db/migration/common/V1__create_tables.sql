@@ -48,4 +48,4 @@ CREATE TABLE IF NOT EXISTS requests (
     requestor_id BIGINT                                NOT NULL,
     CONSTRAINT pk_requests PRIMARY KEY (request_id),
     CONSTRAINT FK_request_on_requestor FOREIGN KEY (requestor_id) REFERENCES users (user_id)
-)
\ No newline at end of file
+);
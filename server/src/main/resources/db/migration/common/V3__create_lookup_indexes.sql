@@ -0,0 +1,30 @@
+-- Последнее и следующее подтвержденное бронирование вещи: item_id = ? and status = ? and end_date </> ?
+CREATE INDEX IF NOT EXISTS IX_BOOKINGS_ITEM_STATUS_END
+    ON bookings (item_id, status, end_date);
+
+-- Бронирования пользователя в порядке убывания start_date, в том числе по курсору (start_date, booking_id)
+CREATE INDEX IF NOT EXISTS IX_BOOKINGS_BOOKER_START
+    ON bookings (booker_id, start_date DESC, booking_id DESC);
+
+-- Бронирования вещей владельца: соединение items по owner_id, затем bookings по item_id
+CREATE INDEX IF NOT EXISTS IX_BOOKINGS_ITEM_START
+    ON bookings (item_id, start_date DESC, booking_id DESC);
+
+-- Вещи владельца в порядке возрастания item_id
+CREATE INDEX IF NOT EXISTS IX_ITEMS_OWNER
+    ON items (owner_id, item_id);
+
+-- Вещи, созданные в ответ на запрос
+CREATE INDEX IF NOT EXISTS IX_ITEMS_REQUEST
+    ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS IX_COMMENTS_ITEM
+    ON comments (item_id);
+
+-- Собственные запросы пользователя
+CREATE INDEX IF NOT EXISTS IX_REQUESTS_REQUESTOR_CREATED
+    ON requests (requestor_id, create_date DESC);
+
+-- Чужие запросы в порядке убывания create_date, в том числе по курсору (create_date, request_id)
+CREATE INDEX IF NOT EXISTS IX_REQUESTS_CREATED
+    ON requests (create_date DESC, request_id DESC);
@@ -0,0 +1,5 @@
+-- Бронирования пользователя в состоянии WAITING или REJECTED в порядке убывания (start_date, booking_id).
+-- Для бронирований вещей владельца с условием на статус хватает префикса (item_id, status)
+-- индекса IX_BOOKINGS_ITEM_STATUS_END.
+CREATE INDEX IF NOT EXISTS IX_BOOKINGS_BOOKER_STATUS_START
+    ON bookings (booker_id, status, start_date DESC, booking_id DESC);
@@ -0,0 +1,6 @@
+-- Владелец вещи, продублированный в бронированиях, чтобы выборки владельца не соединяли bookings с items.
+-- Столбец заполняется миграцией V7 пачками, ограничения и индексы добавляются в V8.
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS owner_id BIGINT;
+
+-- Цель составного внешнего ключа FK_BOOKING_ON_ITEM_OWNER
+ALTER TABLE items ADD CONSTRAINT UQ_ITEM_OWNER UNIQUE (item_id, owner_id);
@@ -0,0 +1,16 @@
+ALTER TABLE bookings ALTER COLUMN owner_id SET NOT NULL;
+
+-- Смена владельца вещи каскадно переносится на ее бронирования
+ALTER TABLE bookings ADD CONSTRAINT FK_BOOKING_ON_ITEM_OWNER FOREIGN KEY (item_id, owner_id)
+    REFERENCES items (item_id, owner_id) ON UPDATE CASCADE;
+
+-- Бронирования вещей владельца в порядке убывания (start_date, booking_id), в том числе по курсору
+CREATE INDEX IF NOT EXISTS IX_BOOKINGS_OWNER_START
+    ON bookings (owner_id, start_date DESC, booking_id DESC);
+
+-- То же в состоянии WAITING или REJECTED
+CREATE INDEX IF NOT EXISTS IX_BOOKINGS_OWNER_STATUS_START
+    ON bookings (owner_id, status, start_date DESC, booking_id DESC);
+
+-- Выборки владельца больше не идут от items к bookings по item_id
+DROP INDEX IF EXISTS IX_BOOKINGS_ITEM_START;
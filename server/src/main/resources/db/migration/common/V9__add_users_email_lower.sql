@@ -0,0 +1,13 @@
+-- Email в нижнем регистре: уникальность без учета регистра проверяется точным поиском по индексу
+-- ограничения, а не LIKE по всей таблице. Новые строки заполняет приложение (User.fillEmailLower).
+-- Если в таблице уже есть адреса, отличающиеся только регистром, миграция остановится на UQ_USER_EMAIL_LOWER.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_lower VARCHAR(254);
+
+UPDATE users SET email_lower = LOWER(email) WHERE email_lower IS NULL;
+
+ALTER TABLE users ALTER COLUMN email_lower SET NOT NULL;
+
+ALTER TABLE users ADD CONSTRAINT UQ_USER_EMAIL_LOWER UNIQUE (email_lower);
+
+-- Точная уникальность следует из UQ_USER_EMAIL_LOWER
+ALTER TABLE users DROP CONSTRAINT UQ_USER_EMAIL;
@@ -0,0 +1,9 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS IX_ITEMS_NAME_TRGM
+    ON items USING GIN (upper(name) gin_trgm_ops)
+    WHERE available = true;
+
+CREATE INDEX IF NOT EXISTS IX_ITEMS_DESCRIPTION_TRGM
+    ON items USING GIN (upper(description) gin_trgm_ops)
+    WHERE available = true;
@@ -0,0 +1,8 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Подтвержденные бронирования одной вещи не могут пересекаться. Интервал полуоткрытый,
+-- поэтому бронирование может начаться ровно тогда, когда закончилось предыдущее.
+ALTER TABLE bookings
+    ADD CONSTRAINT EX_BOOKINGS_APPROVED_OVERLAP
+    EXCLUDE USING GIST (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+    WHERE (status = 'APPROVED');
@@ -0,0 +1,99 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ShareItServer;
+import ru.practicum.item.model.Item;
+import ru.practicum.item.repository.ItemRepository;
+import ru.practicum.user.model.User;
+import ru.practicum.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Скорость записи в БД при массовой вставке: в одной транзакции сохраняется ROWS пользователей, у каждого
+ * по вещи, вперемешку. Сравнивается шаг выделения идентификаторов (id-allocation-size) и размер JDBC batch,
+ * результат в строках в миллисекунду. Запуск:
+ * mvn -pl server test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath ru.practicum.shareit.BulkInsertBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@OperationsPerInvocation(BulkInsertBenchmark.ROWS * 2)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    static final int ROWS = 500;
+
+    @Param({"1", "50"})
+    int allocationSize;
+
+    @Param({"1", "50"})
+    int batchSize;
+
+    ConfigurableApplicationContext context;
+    UserRepository userRepository;
+    ItemRepository itemRepository;
+    TransactionTemplate transactionTemplate;
+    AtomicLong next = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID(),
+                        "spring.flyway.placeholders.id-allocation-size=" + allocationSize,
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize)
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> insertUsersWithItems() {
+        return transactionTemplate.execute(status -> {
+            List<Item> items = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                long n = next.incrementAndGet();
+                User user = userRepository.save(User.builder()
+                        .name("user " + n)
+                        .email("user" + n + "@ex.com")
+                        .build());
+                items.add(itemRepository.save(Item.builder()
+                        .name("item " + n)
+                        .description("description " + n)
+                        .available(true)
+                        .owner(user)
+                        .build()));
+            }
+            return items;
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BulkInsertBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
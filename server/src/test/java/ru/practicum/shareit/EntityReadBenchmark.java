@@ -0,0 +1,101 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.ShareItServer;
+import ru.practicum.item.dto.ItemDto;
+import ru.practicum.item.service.ItemService;
+import ru.practicum.request.dto.ItemRequestDto;
+import ru.practicum.request.dto.ItemRequestResponseDto;
+import ru.practicum.request.service.ItemRequestService;
+import ru.practicum.user.dto.UserDto;
+import ru.practicum.user.service.UserService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность чтения пользователей и запросов с вещами (UserService.getUserById,
+ * ItemRequestService.getItemRequestById) с кэшем второго уровня и без него. Запуск:
+ * mvn -pl server test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath ru.practicum.shareit.EntityReadBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class EntityReadBenchmark {
+
+    static final int USERS = 1_000;
+    static final int REQUESTS = 1_000;
+
+    @Param({"true", "false"})
+    boolean cacheEnabled;
+
+    ConfigurableApplicationContext context;
+    UserService userService;
+    ItemRequestService requestService;
+    long[] userIds = new long[USERS];
+    long[] requestIds = new long[REQUESTS];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("shareit.cache.enabled=" + cacheEnabled)
+                .run();
+        userService = context.getBean(UserService.class);
+        requestService = context.getBean(ItemRequestService.class);
+        ItemService itemService = context.getBean(ItemService.class);
+
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = userService.createUser(UserDto.builder()
+                    .name("user " + i)
+                    .email("user" + i + "@ex.com")
+                    .build()).getId();
+        }
+        for (int i = 0; i < REQUESTS; i++) {
+            requestIds[i] = requestService.createItemRequest(userIds[i % USERS], ItemRequestDto.builder()
+                    .description("request " + i)
+                    .build()).getId();
+            itemService.createItem(userIds[(i + 1) % USERS], ItemDto.builder()
+                    .name("item " + i)
+                    .description("description " + i)
+                    .available(true)
+                    .requestId(requestIds[i])
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDto getUserById() {
+        return userService.getUserById(userIds[ThreadLocalRandom.current().nextInt(USERS)]);
+    }
+
+    @Benchmark
+    public ItemRequestResponseDto getItemRequestById() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return requestService.getItemRequestById(userIds[random.nextInt(USERS)], requestIds[random.nextInt(REQUESTS)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EntityReadBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
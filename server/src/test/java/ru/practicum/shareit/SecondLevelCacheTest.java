@@ -0,0 +1,133 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.booking.dto.BookingDto;
+import ru.practicum.booking.service.BookingService;
+import ru.practicum.item.dto.ItemDto;
+import ru.practicum.item.service.ItemService;
+import ru.practicum.request.dto.ItemRequestDto;
+import ru.practicum.request.dto.ItemRequestResponseDto;
+import ru.practicum.request.service.ItemRequestService;
+import ru.practicum.user.dto.UserDto;
+import ru.practicum.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Кэш второго уровня и кэш запросов: повторные чтения не доходят до БД, а изменения через Hibernate
+ * сразу видны в кэше.
+ */
+@SpringBootTest(properties = "shareit.cache.enabled=true")
+@DirtiesContext
+class SecondLevelCacheTest {
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    ItemRequestService requestService;
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    Statistics statistics;
+    UserDto owner;
+    UserDto requestor;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userService.createUser(UserDto.builder()
+                .name("owner")
+                .email("owner" + System.nanoTime() + "@ex.com")
+                .build());
+        requestor = userService.createUser(UserDto.builder()
+                .name("requestor")
+                .email("requestor" + System.nanoTime() + "@ex.com")
+                .build());
+    }
+
+    @Test
+    void shouldReadUpdatedUserFromCache() {
+        userService.getUserById(owner.getId());
+        assertStatements(0, () -> userService.getUserById(owner.getId()));
+
+        userService.updateUser(owner.getId(), UserDto.builder().name("new owner").build());
+
+        UserDto user = assertStatements(0, () -> userService.getUserById(owner.getId()));
+        assertEquals("new owner", user.getName());
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", "users")
+                .tag("result", "hit")
+                .functionCounter()
+                .count() > 0);
+    }
+
+    @Test
+    void shouldReadRequestWithItemsFromCacheUntilItemAdded() {
+        ItemRequestDto request = requestService.createItemRequest(requestor.getId(),
+                ItemRequestDto.builder().description("Need a wand").build());
+        itemService.createItem(owner.getId(), item("Wand", request.getId()));
+        requestService.getItemRequestById(requestor.getId(), request.getId());
+
+        assertStatements(0, () -> requestService.getItemRequestById(requestor.getId(), request.getId()));
+
+        itemService.createItem(owner.getId(), item("Elder wand", request.getId()));
+
+        ItemRequestResponseDto response = assertStatements(1,
+                () -> requestService.getItemRequestById(requestor.getId(), request.getId()));
+        assertEquals(2, response.getItems().size());
+    }
+
+    @Test
+    void shouldKeepEntityCacheWhenBookingStatusChanges() {
+        ItemDto item = itemService.createItem(owner.getId(), item("Broom", null));
+        Long bookingId = bookingService.addBooking(requestor.getId(), BookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build()).getId();
+        userService.getUserById(owner.getId());
+
+        bookingService.changeStatus(owner.getId(), bookingId, true);
+
+        assertStatements(0, () -> userService.getUserById(owner.getId()));
+    }
+
+    private ItemDto item(String name, Long requestId) {
+        return ItemDto.builder()
+                .name(name)
+                .description(name)
+                .available(true)
+                .requestId(requestId)
+                .build();
+    }
+
+    private <T> T assertStatements(long expected, Supplier<T> call) {
+        statistics.clear();
+        T result = call.get();
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return result;
+    }
+}
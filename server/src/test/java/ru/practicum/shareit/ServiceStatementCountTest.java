@@ -0,0 +1,271 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.booking.dto.BookingDto;
+import ru.practicum.booking.dto.BookingStatusChangeDto;
+import ru.practicum.booking.model.Booking;
+import ru.practicum.booking.model.State;
+import ru.practicum.booking.model.Status;
+import ru.practicum.booking.repository.BookingRepository;
+import ru.practicum.booking.service.BookingService;
+import ru.practicum.item.dto.CommentDto;
+import ru.practicum.item.dto.ItemDto;
+import ru.practicum.item.model.Comment;
+import ru.practicum.item.model.Item;
+import ru.practicum.item.repository.CommentRepository;
+import ru.practicum.item.repository.ItemRepository;
+import ru.practicum.item.service.ItemService;
+import ru.practicum.request.dto.ItemRequestDto;
+import ru.practicum.request.model.ItemRequest;
+import ru.practicum.request.repository.ItemRequestRepository;
+import ru.practicum.request.service.ItemRequestService;
+import ru.practicum.user.dto.UserDto;
+import ru.practicum.user.model.User;
+import ru.practicum.user.repository.UserRepository;
+import ru.practicum.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Точное число SQL-запросов каждого метода сервисов при ленивых связях и выключенном open-in-view.
+ * Результат сериализуется в JSON вне транзакции, поэтому недогруженная связь приводит к ошибке, а не к запросу.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.open-in-view=false",
+        "shareit.booking.cache.ttl=0s",
+        "shareit.user.cache.ttl=0s"
+})
+@DirtiesContext
+class ServiceStatementCountTest {
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    ItemRequestService requestService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ItemRequestRepository requestRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    CommentRepository commentRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    Statistics statistics;
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    User owner;
+    User booker;
+    User requestor;
+    ItemRequest request;
+    Item requestedItem;
+    Item item;
+    Booking pastBooking;
+    Booking waitingBooking;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userRepository.save(User.builder().name("owner").email("owner@ex.com").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@ex.com").build());
+        requestor = userRepository.save(User.builder().name("requestor").email("requestor@ex.com").build());
+        request = requestRepository.save(ItemRequest.builder()
+                .description("Need a wand")
+                .created(now.minusDays(3))
+                .requestor(requestor)
+                .build());
+        requestedItem = itemRepository.save(Item.builder()
+                .name("Wand")
+                .description("Elder wand")
+                .available(true)
+                .owner(owner)
+                .itemRequest(request)
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("Broom")
+                .description("Nimbus 2000")
+                .available(true)
+                .owner(owner)
+                .build());
+        pastBooking = bookingRepository.save(Booking.builder()
+                .start(now.minusDays(2))
+                .end(now.minusDays(1))
+                .item(requestedItem)
+                .booker(booker)
+                .status(Status.APPROVED)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .item(requestedItem)
+                .booker(booker)
+                .status(Status.APPROVED)
+                .build());
+        waitingBooking = bookingRepository.save(Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .item(item)
+                .booker(booker)
+                .status(Status.WAITING)
+                .build());
+        commentRepository.save(Comment.builder()
+                .text("Great wand")
+                .created(now.minusHours(1))
+                .item(requestedItem)
+                .author(booker)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAllInBatch();
+        bookingRepository.deleteAllInBatch();
+        itemRepository.deleteAllInBatch();
+        requestRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void bookingServiceStatements() {
+        BookingDto bookingDto = BookingDto.builder()
+                .itemId(item.getId())
+                .start(now.plusDays(5))
+                .end(now.plusDays(6))
+                .build();
+        assertStatements(4, () -> bookingService.addBooking(booker.getId(), bookingDto));
+        assertStatements(3, () -> bookingService.changeStatus(owner.getId(), waitingBooking.getId(), true));
+        Long bookingId = bookingService.addBooking(booker.getId(), BookingDto.builder()
+                .itemId(item.getId())
+                .start(now.plusDays(7))
+                .end(now.plusDays(8))
+                .build()).getId();
+        Long otherBookingId = bookingService.addBooking(booker.getId(), BookingDto.builder()
+                .itemId(item.getId())
+                .start(now.plusDays(9))
+                .end(now.plusDays(10))
+                .build()).getId();
+        assertStatements(5, () -> bookingService.changeStatuses(owner.getId(), List.of(
+                new BookingStatusChangeDto(bookingId, true),
+                new BookingStatusChangeDto(otherBookingId, false))));
+        assertStatements(2, () -> bookingService.getBookingById(booker.getId(), pastBooking.getId()));
+        assertStatements(2, () -> bookingService.getBookingsByIds(booker.getId(),
+                List.of(waitingBooking.getId(), pastBooking.getId())));
+        assertStatements(2, () -> bookingService.getAllByBooker(booker.getId(), State.ALL, 0, 10));
+        assertStatements(2, () -> bookingService.getAllByBooker(booker.getId(), State.ALL, null, 10));
+        assertStatements(2, () -> bookingService.getAllByOwner(owner.getId(), State.ALL, 0, 10));
+        assertStatements(2, () -> bookingService.getAllByOwner(owner.getId(), State.ALL, null, 10));
+        assertStatements(2, () -> bookingService.getShortByBooker(booker.getId(), State.ALL, 0, 10));
+        assertStatements(2, () -> bookingService.getShortByBooker(booker.getId(), State.ALL, null, 10));
+        assertStatements(2, () -> bookingService.getShortByOwner(owner.getId(), State.ALL, 0, 10));
+        assertStatements(2, () -> bookingService.getShortByOwner(owner.getId(), State.ALL, null, 10));
+    }
+
+    @Test
+    void itemServiceStatements() {
+        ItemDto itemDto = ItemDto.builder()
+                .name("Cloak")
+                .description("Invisibility cloak")
+                .available(true)
+                .requestId(request.getId())
+                .build();
+        assertStatements(3, () -> itemService.createItem(owner.getId(), itemDto));
+        assertStatements(3, () -> itemService.updateItem(owner.getId(), item.getId(),
+                ItemDto.builder().name("Firebolt").build()));
+        assertStatements(3, () -> itemService.getItemById(owner.getId(), requestedItem.getId()));
+        assertStatements(3, () -> itemService.getItemById(booker.getId(), requestedItem.getId()));
+        assertStatements(4, () -> itemService.getItemsByIds(owner.getId(),
+                List.of(item.getId(), requestedItem.getId())));
+        assertStatements(3, () -> itemService.getItemsByIds(booker.getId(),
+                List.of(item.getId(), requestedItem.getId())));
+        assertStatements(4, () -> itemService.getItems(owner.getId(), 0, 10));
+        assertStatements(4, () -> itemService.getItems(owner.getId(), null, 10));
+        assertStatements(1, () -> itemService.searchItem("wand", null, null, 0, 10));
+        assertStatements(1, () -> itemService.searchItem("wand", null, null, null, 10));
+        assertStatements(1, () -> itemService.searchItem("wand", now.plusDays(3), now.plusDays(4), 0, 10));
+        assertStatements(4, () -> itemService.createComment(requestedItem.getId(), booker.getId(),
+                CommentDto.builder().text("Still great").build()));
+    }
+
+    @Test
+    void itemRequestServiceStatements() {
+        assertStatements(2, () -> requestService.createItemRequest(booker.getId(),
+                ItemRequestDto.builder().description("Need a broom").build()));
+        assertStatements(3, () -> requestService.getItemRequests(requestor.getId()));
+        assertStatements(3, () -> requestService.getItemRequests(requestor.getId(), 0, 10));
+        assertStatements(3, () -> requestService.getAllItemRequests(owner.getId(), 0, 10));
+        assertStatements(3, () -> requestService.getAllItemRequests(owner.getId(), null, 10));
+        assertStatements(3, () -> requestService.getItemRequestById(owner.getId(), request.getId()));
+    }
+
+    @Test
+    void userServiceStatements() {
+        User user = userRepository.save(User.builder().name("user").email("user@ex.com").build());
+        assertStatements(1, () -> userService.getUsers());
+        assertStatements(1, () -> userService.getUsers(null, 2));
+        assertStatements(1, () -> {
+            userService.streamUsers(userDto -> { });
+            return null;
+        });
+        assertStatements(1, () -> userService.createUser(UserDto.builder()
+                .name("new")
+                .email("new@ex.com")
+                .build()));
+        assertStatements(2, () -> userService.updateUser(user.getId(), UserDto.builder()
+                .email("updated@ex.com")
+                .build()));
+        assertStatements(1, () -> userService.getUserById(user.getId()));
+        assertStatements(1, () -> userService.getUsersByIds(List.of(user.getId(), owner.getId())));
+        assertStatements(2, () -> {
+            userService.deleteUserById(user.getId());
+            return null;
+        });
+    }
+
+    private void assertStatements(long expected, Supplier<?> call) {
+        statistics.clear();
+        String json = toJson(call.get());
+        assertEquals(expected, statistics.getPrepareStatementCount(), json);
+    }
+
+    private String toJson(Object result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
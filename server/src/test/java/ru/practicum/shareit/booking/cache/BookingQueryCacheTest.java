@@ -0,0 +1,52 @@
+package ru.practicum.shareit.booking.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.booking.cache.BookingQueryCache;
+import ru.practicum.booking.model.State;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingQueryCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    BookingQueryCache cache = new BookingQueryCache(new SimpleMeterRegistry(), Duration.ofMinutes(1));
+
+    @Test
+    void shouldEvictOnlyGivenUser() {
+        cache.get(BookingQueryCache.ofBooker(1L, State.ALL, NOW, 0, 10, null), () -> "booker 1");
+        cache.get(BookingQueryCache.ofOwner(2L, State.ALL, NOW, 0, 10, null), () -> "owner 2");
+
+        cache.evictUser(1L);
+
+        assertEquals("reloaded", cache.get(BookingQueryCache.ofBooker(1L, State.ALL, NOW, 0, 10, null),
+                () -> "reloaded"));
+        assertEquals("owner 2", cache.get(BookingQueryCache.ofOwner(2L, State.ALL, NOW, 0, 10, null),
+                () -> "reloaded"));
+    }
+
+    @Test
+    void shouldEvictUserOnlyAfterCommit() {
+        BookingQueryCache.Key key = BookingQueryCache.ofBooker(1L, State.ALL, NOW, 0, 10, null);
+        cache.get(key, () -> "before");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evictUser(1L);
+            // Чтение до коммита видит прежний список, но не должно пережить сброс после коммита
+            assertEquals("before", cache.get(key, () -> "uncommitted"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals("after", cache.get(key, () -> "after"));
+    }
+}
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking.controller;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.booking.controller.BookingController;
+import ru.practicum.booking.dto.BookingShortDto;
+import ru.practicum.booking.mapper.BookingMapper;
+import ru.practicum.booking.model.Booking;
+import ru.practicum.booking.model.State;
+import ru.practicum.booking.service.BookingServiceImpl;
+import ru.practicum.item.model.Item;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.user.model.User;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = BookingController.class, properties = "shareit.booking.list.slim=true")
+class BookingControllerSlimListTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    BookingServiceImpl bookingService;
+
+    public final String header = "X-Sharer-User-Id";
+
+    User user1 = User.builder()
+            .id(1L)
+            .email("email@ex.com")
+            .name("Harry Potter")
+            .build();
+
+    User user2 = User.builder()
+            .id(2L)
+            .email("email@exx.com")
+            .name("Hermione Granger")
+            .build();
+
+    Item item = Item.builder()
+            .id(1L)
+            .name("Wand")
+            .description("A wand is the object through which a witch or wizard channels his or her magic")
+            .available(Boolean.TRUE)
+            .owner(user1)
+            .build();
+
+    Item item2 = Item.builder()
+            .id(2L)
+            .name("Golden snitch")
+            .description("It's the most important ball of the lot")
+            .available(Boolean.TRUE)
+            .owner(user1)
+            .build();
+
+    BookingShortDto bookingShortDto = BookingMapper.toBookingShortDto(Booking.builder()
+            .id(1L)
+            .item(item)
+            .booker(user2)
+            .build());
+
+    BookingShortDto bookingShortDto1 = new BookingShortDto(2L, null, null, null, item2.getId(), item2.getName(),
+            user2.getId());
+
+    @Test
+    void shouldGetAllByBookerWhenListIsEmpty() throws Exception {
+        when(bookingService.getShortByBooker(anyLong(), any(State.class), anyInt(), anyInt()))
+                .thenReturn(Collections.emptyList());
+
+        mvc.perform(get("/bookings")
+                        .header(header, 1)
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("state", "ALL"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+
+        verify(bookingService, Mockito.times(1))
+                .getShortByBooker(anyLong(), any(State.class), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldGetAllByBooker() throws Exception {
+        when(bookingService.getShortByBooker(anyLong(), any(State.class), anyInt(), anyInt()))
+                .thenReturn(List.of(bookingShortDto, bookingShortDto1));
+
+        mvc.perform(get("/bookings")
+                        .header(header, 1)
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("state", "ALL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].item.name").value("Wand"))
+                .andExpect(jsonPath("$[1].id").value(2L))
+                .andExpect(jsonPath("$[1].item.name").value("Golden snitch"))
+                .andExpect(jsonPath("$[0].item.description").doesNotExist())
+                .andExpect(jsonPath("$[0].booker.id").value(2L))
+                .andExpect(jsonPath("$[0].booker.email").doesNotExist());
+
+        verify(bookingService, Mockito.times(1))
+                .getShortByBooker(anyLong(), any(State.class), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldGetAllByBookerWithCursor() throws Exception {
+        when(bookingService.getShortByBooker(anyLong(), any(State.class), eq("abc"), anyInt()))
+                .thenReturn(new CursorPage<>(List.of(bookingShortDto), "def"));
+
+        mvc.perform(get("/bookings")
+                        .header(header, 1)
+                        .param("size", "1")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "def"))
+                .andExpect(jsonPath("$[0].id").value(1L));
+
+        verify(bookingService, Mockito.never())
+                .getShortByBooker(anyLong(), any(State.class), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldGetAllByOwnerWhenListIsEmpty() throws Exception {
+        when(bookingService.getShortByOwner(anyLong(), any(State.class), anyInt(), anyInt()))
+                .thenReturn(Collections.emptyList());
+
+        mvc.perform(get("/bookings/owner")
+                        .header(header, 1)
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("state", "ALL"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+
+        verify(bookingService, Mockito.times(1))
+                .getShortByOwner(anyLong(), any(State.class), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldGetAllByOwner() throws Exception {
+        when(bookingService.getShortByOwner(anyLong(), any(State.class), anyInt(), anyInt()))
+                .thenReturn(List.of(bookingShortDto, bookingShortDto1));
+
+        mvc.perform(get("/bookings/owner")
+                        .header(header, 1)
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("state", "ALL"))
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].item.name").value("Wand"))
+                .andExpect(jsonPath("$[1].id").value(2L))
+                .andExpect(jsonPath("$[1].item.name").value("Golden snitch"));
+
+        verify(bookingService, Mockito.times(1))
+                .getShortByOwner(anyLong(), any(State.class), anyInt(), anyInt());
+    }
+}
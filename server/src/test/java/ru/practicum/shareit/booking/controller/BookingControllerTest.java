@@ -11,12 +11,16 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.booking.controller.BookingController;
 import ru.practicum.booking.dto.BookingDto;
 import ru.practicum.booking.dto.BookingOutputDto;
+import ru.practicum.booking.dto.BookingStatusChangeDto;
+import ru.practicum.booking.dto.BookingStatusResultDto;
 import ru.practicum.booking.mapper.BookingMapper;
 import ru.practicum.booking.model.Booking;
 import ru.practicum.booking.model.State;
 import ru.practicum.booking.model.Status;
 import ru.practicum.booking.service.BookingServiceImpl;
+import ru.practicum.exception.ValidationException;
 import ru.practicum.item.model.Item;
+import ru.practicum.pagination.CursorPage;
 import ru.practicum.user.model.User;
 
 import java.nio.charset.StandardCharsets;
@@ -129,6 +133,27 @@ class BookingControllerTest {
                 .changeStatus(anyLong(), anyLong(), anyBoolean());
     }
 
+    @Test
+    void shouldChangeStatuses() throws Exception {
+        List<BookingStatusChangeDto> changes = List.of(
+                new BookingStatusChangeDto(1L, true),
+                new BookingStatusChangeDto(2L, false));
+        when(bookingService.changeStatuses(1L, changes))
+                .thenReturn(List.of(
+                        new BookingStatusResultDto(1L, Status.APPROVED, null),
+                        new BookingStatusResultDto(2L, Status.APPROVED, "Бронирование уже было подтверждено")));
+
+        mvc.perform(patch("/bookings")
+                        .content(objectMapper.writeValueAsString(changes))
+                        .header(header, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId").value(1L))
+                .andExpect(jsonPath("$[0].status").value("APPROVED"))
+                .andExpect(jsonPath("$[1].error").value("Бронирование уже было подтверждено"));
+    }
+
     @Test
     void shouldGetBookingById() throws Exception {
         when(bookingService.getBookingById(anyLong(), anyLong()))
@@ -144,6 +169,31 @@ class BookingControllerTest {
                 .getBookingById(anyLong(), anyLong());
     }
 
+    @Test
+    void shouldGetBookingsByIds() throws Exception {
+        when(bookingService.getBookingsByIds(2L, List.of(1L, 5L)))
+                .thenReturn(List.of(bookingOutputDto));
+
+        mvc.perform(get("/bookings")
+                        .param("ids", "1,5")
+                        .header(header, 2L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].item.name").value("Wand"));
+    }
+
+    @Test
+    void shouldReturnConflictWhenApprovedBookingOverlaps() throws Exception {
+        when(bookingService.changeStatus(anyLong(), anyLong(), anyBoolean()))
+                .thenThrow(new ValidationException("Объект id 1 уже забронирован на эти даты"));
+
+        mvc.perform(patch("/bookings/1")
+                        .header(header, 1)
+                        .param("approved", "true"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Объект id 1 уже забронирован на эти даты"));
+    }
+
     @Test
     void shouldGetAllByBookerWhenListIsEmpty() throws Exception {
         when(bookingService.getAllByBooker(anyLong(), any(State.class), anyInt(), anyInt()))
@@ -162,7 +212,7 @@ class BookingControllerTest {
     }
 
     @Test
-    void shouldGetAllByBooker() throws Exception {
+    void shouldGetAllByBookerInFullShapeByDefault() throws Exception {
         when(bookingService.getAllByBooker(anyLong(), any(State.class), anyInt(), anyInt()))
                 .thenReturn(List.of(bookingOutputDto, booking1));
 
@@ -175,12 +225,32 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].item.name").value("Wand"))
                 .andExpect(jsonPath("$[1].id").value(2L))
-                .andExpect(jsonPath("$[1].item.name").value("Golden snitch"));
+                .andExpect(jsonPath("$[1].item.name").value("Golden snitch"))
+                .andExpect(jsonPath("$[0].item.description").value(item.getDescription()))
+                .andExpect(jsonPath("$[0].booker.id").value(2L))
+                .andExpect(jsonPath("$[0].booker.email").value(user2.getEmail()));
 
         verify(bookingService, Mockito.times(1))
                 .getAllByBooker(anyLong(), any(State.class), anyInt(), anyInt());
     }
 
+    @Test
+    void shouldGetAllByBookerWithCursor() throws Exception {
+        when(bookingService.getAllByBooker(anyLong(), any(State.class), eq("abc"), anyInt()))
+                .thenReturn(new CursorPage<>(List.of(bookingOutputDto), "def"));
+
+        mvc.perform(get("/bookings")
+                        .header(header, 1)
+                        .param("size", "1")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "def"))
+                .andExpect(jsonPath("$[0].id").value(1L));
+
+        verify(bookingService, Mockito.never())
+                .getAllByBooker(anyLong(), any(State.class), anyInt(), anyInt());
+    }
+
     @Test
     void shouldGetAllByOwnerWhenListIsEmpty() throws Exception {
         when(bookingService.getAllByOwner(anyLong(), any(State.class), anyInt(), anyInt()))
@@ -216,4 +286,4 @@ class BookingControllerTest {
         verify(bookingService, Mockito.times(1))
                 .getAllByOwner(anyLong(), any(State.class), anyInt(), anyInt());
     }
-}
\ No newline at end of file
+}
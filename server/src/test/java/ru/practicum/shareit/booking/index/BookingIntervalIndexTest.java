@@ -0,0 +1,246 @@
+package ru.practicum.shareit.booking.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.booking.index.BookingIntervalIndex;
+import ru.practicum.booking.model.Booking;
+import ru.practicum.booking.model.Status;
+import ru.practicum.booking.repository.BookingIntervalProjection;
+import ru.practicum.booking.repository.BookingRepository;
+import ru.practicum.item.model.Item;
+import ru.practicum.shareit.MutableClock;
+import ru.practicum.user.model.User;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 5, 10, 12, 0);
+
+    @Mock
+    BookingRepository bookingRepository;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    MutableClock clock = new MutableClock(Instant.parse("2023-05-10T12:00:00Z"), ZoneOffset.UTC);
+
+    BookingIntervalIndex bookingIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookingIndex = new BookingIntervalIndex(bookingRepository, meterRegistry, clock, true, Duration.ofMinutes(1));
+        when(bookingRepository.streamAllByStatus(Status.APPROVED))
+                .thenReturn(Stream.of(
+                        projection(3L, 1L, NOW.plusDays(1), NOW.plusDays(2)),
+                        projection(1L, 1L, NOW.minusDays(4), NOW.minusDays(3)),
+                        projection(2L, 1L, NOW.minusDays(2), NOW.minusDays(1)),
+                        projection(4L, 2L, NOW.minusHours(1), NOW.plusHours(1))));
+        bookingIndex.rebuild();
+    }
+
+    @Test
+    void shouldBeEnabledAfterRebuild() {
+        assertTrue(bookingIndex.isEnabled());
+        assertEquals(4, bookingIndex.size());
+        assertEquals(4, meterRegistry.get("shareit.booking.index.bookings").gauge().value());
+        assertTrue(meterRegistry.get("shareit.booking.index.memory").gauge().value() > 0);
+    }
+
+    @Test
+    void shouldNotBeEnabledWhenSwitchedOff() {
+        BookingIntervalIndex disabled = new BookingIntervalIndex(bookingRepository, new SimpleMeterRegistry(), clock,
+                false, Duration.ofMinutes(1));
+        disabled.rebuild();
+
+        assertFalse(disabled.isEnabled());
+    }
+
+    @Test
+    void shouldFindLastAndNextBookings() {
+        assertEquals(2L, bookingIndex.getLastBooking(1L, NOW).getId());
+        assertEquals(NOW.minusDays(1), bookingIndex.getLastBooking(1L, NOW).getEnd());
+        assertEquals(3L, bookingIndex.getNextBooking(1L, NOW).getId());
+        assertEquals(10L, bookingIndex.getNextBooking(1L, NOW).getBookerId());
+
+        assertNull(bookingIndex.getLastBooking(2L, NOW));
+        assertEquals(4L, bookingIndex.getNextBooking(2L, NOW).getId());
+        assertNull(bookingIndex.getNextBooking(3L, NOW));
+    }
+
+    @Test
+    void shouldCheckOverlapWithApprovedBookings() {
+        assertTrue(bookingIndex.isBooked(1L, NOW.plusDays(1).plusHours(1), NOW.plusDays(3)));
+        assertTrue(bookingIndex.isBooked(1L, NOW.minusDays(5), NOW.plusDays(5)));
+        assertFalse(bookingIndex.isBooked(1L, NOW, NOW.plusDays(1)));
+        assertFalse(bookingIndex.isBooked(1L, NOW.plusDays(2), NOW.plusDays(3)));
+        assertFalse(bookingIndex.isBooked(3L, NOW, NOW.plusDays(1)));
+    }
+
+    @Test
+    void shouldUpdateIndexWhenStatusChanged() {
+        Booking booking = Booking.builder()
+                .id(5L)
+                .start(NOW.plusHours(1))
+                .end(NOW.plusHours(2))
+                .item(Item.builder().id(1L).build())
+                .booker(User.builder().id(10L).build())
+                .status(Status.WAITING)
+                .build();
+        bookingIndex.update(booking);
+        assertFalse(bookingIndex.isBooked(1L, NOW, NOW.plusDays(1)));
+
+        booking.setStatus(Status.APPROVED);
+        bookingIndex.update(booking);
+        assertTrue(bookingIndex.isBooked(1L, NOW, NOW.plusDays(1)));
+        assertEquals(5L, bookingIndex.getNextBooking(1L, NOW).getId());
+        assertEquals(5, bookingIndex.size());
+
+        booking.setStatus(Status.REJECTED);
+        bookingIndex.update(booking);
+        assertFalse(bookingIndex.isBooked(1L, NOW, NOW.plusDays(1)));
+        assertEquals(4, bookingIndex.size());
+    }
+
+    @Test
+    void shouldUpdateIndexOnlyAfterCommit() {
+        Booking approved = Booking.builder()
+                .id(5L)
+                .start(NOW.plusHours(1))
+                .end(NOW.plusHours(2))
+                .item(Item.builder().id(1L).build())
+                .booker(User.builder().id(10L).build())
+                .status(Status.APPROVED)
+                .build();
+        Booking rolledBack = Booking.builder()
+                .id(6L)
+                .start(NOW.plusDays(5))
+                .end(NOW.plusDays(6))
+                .item(Item.builder().id(1L).build())
+                .booker(User.builder().id(10L).build())
+                .status(Status.APPROVED)
+                .build();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingIndex.update(approved);
+            assertFalse(bookingIndex.isBooked(1L, NOW, NOW.plusDays(1)));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(bookingIndex.isBooked(1L, NOW, NOW.plusDays(1)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingIndex.update(rolledBack);
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertFalse(bookingIndex.isBooked(1L, NOW.plusDays(5), NOW.plusDays(6)));
+        assertEquals(5, bookingIndex.size());
+    }
+
+    @Test
+    void shouldReloadItemBookingsApprovedOnOtherNodeAfterRefreshInterval() {
+        assertEquals(4L, bookingIndex.getNextBooking(2L, NOW.minusHours(2)).getId());
+        verify(bookingRepository, never()).findIntervalsByItemIdAndStatus(anyLong(), any());
+
+        clock.advance(Duration.ofMinutes(2));
+        when(bookingRepository.findIntervalsByItemIdAndStatus(2L, Status.APPROVED))
+                .thenReturn(List.of(projection(7L, 2L, NOW.plusDays(3), NOW.plusDays(4))));
+
+        assertEquals(7L, bookingIndex.getNextBooking(2L, NOW).getId());
+        assertFalse(bookingIndex.isBooked(2L, NOW.minusHours(1), NOW.plusHours(1)));
+
+        verify(bookingRepository, times(1)).findIntervalsByItemIdAndStatus(anyLong(), any());
+    }
+
+    @Test
+    void shouldKeepLocalChangeMadeWhileReloading() {
+        clock.advance(Duration.ofMinutes(2));
+        Booking approved = Booking.builder()
+                .id(8L)
+                .start(NOW.plusDays(5))
+                .end(NOW.plusDays(6))
+                .item(Item.builder().id(2L).build())
+                .booker(User.builder().id(10L).build())
+                .status(Status.APPROVED)
+                .build();
+        when(bookingRepository.findIntervalsByItemIdAndStatus(2L, Status.APPROVED))
+                .thenAnswer(invocation -> {
+                    bookingIndex.update(approved);
+                    return List.of();
+                })
+                .thenReturn(List.of(projection(8L, 2L, NOW.plusDays(5), NOW.plusDays(6))));
+
+        assertTrue(bookingIndex.isBooked(2L, NOW.plusDays(5), NOW.plusDays(6)));
+        assertEquals(8L, bookingIndex.getNextBooking(2L, NOW).getId());
+
+        verify(bookingRepository, times(2)).findIntervalsByItemIdAndStatus(2L, Status.APPROVED);
+    }
+
+    @Test
+    void shouldNotReloadWhenRefreshSwitchedOff() {
+        when(bookingRepository.streamAllByStatus(Status.APPROVED))
+                .thenReturn(Stream.of(projection(4L, 2L, NOW.minusHours(1), NOW.plusHours(1))));
+        BookingIntervalIndex singleNode = new BookingIntervalIndex(bookingRepository, new SimpleMeterRegistry(),
+                clock, true, Duration.ZERO);
+        singleNode.rebuild();
+        clock.advance(Duration.ofDays(1));
+
+        assertEquals(4L, singleNode.getNextBooking(2L, NOW.minusHours(2)).getId());
+        verify(bookingRepository, never()).findIntervalsByItemIdAndStatus(anyLong(), any());
+    }
+
+    private static BookingIntervalProjection projection(Long id, Long itemId, LocalDateTime start, LocalDateTime end) {
+        return new BookingIntervalProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getBookerId() {
+                return 10L;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
@@ -4,19 +4,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import ru.practicum.booking.dto.BookingShortDto;
 import ru.practicum.booking.model.Booking;
+import ru.practicum.booking.model.State;
 import ru.practicum.booking.model.Status;
+import ru.practicum.booking.repository.BookingFilter;
 import ru.practicum.booking.repository.BookingRepository;
 import ru.practicum.item.model.Item;
 import ru.practicum.user.model.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -68,7 +73,7 @@ class BookingRepositoryTest {
             .build();
 
     @Test
-    void shouldFindByBooker() {
+    void shouldFindByFilterForBookerAllState() {
         em.persist(user1);
         em.persist(user2);
         em.persist(item1);
@@ -76,13 +81,13 @@ class BookingRepositoryTest {
         em.persist(booking1);
         em.persist(booking2);
 
-        List<Booking> bookingList = bookingRepository.findByBooker(user1, Pageable.ofSize(1));
+        List<Booking> bookingList = bookingRepository.findByFilter(filter(BookingFilter.Role.BOOKER, user1, State.ALL));
         assertEquals(1, bookingList.size());
         assertEquals(booking2.getId(), bookingList.get(0).getId());
     }
 
     @Test
-    void shouldFindByBookerIdCurrent() {
+    void shouldFindByFilterForBookerCurrentState() {
         em.persist(user1);
         em.persist(user2);
         em.persist(item1);
@@ -91,13 +96,13 @@ class BookingRepositoryTest {
         em.persist(booking2);
 
         List<Booking> bookingList = bookingRepository
-                .findByBookerIdCurrent(user1.getId(), Pageable.ofSize(1));
+                .findByFilter(filter(BookingFilter.Role.BOOKER, user1, State.CURRENT));
         assertEquals(1, bookingList.size());
         assertEquals(booking2.getId(), bookingList.get(0).getId());
     }
 
     @Test
-    void shouldFindByBookerAndStatus() {
+    void shouldFindByFilterForBookerWaitingState() {
         em.persist(user1);
         em.persist(user2);
         em.persist(item1);
@@ -106,13 +111,13 @@ class BookingRepositoryTest {
         em.persist(booking2);
 
         List<Booking> bookingList = bookingRepository
-                .findByBookerAndStatus(user1, Status.WAITING, Pageable.ofSize(1));
+                .findByFilter(filter(BookingFilter.Role.BOOKER, user1, State.WAITING));
         assertEquals(1, bookingList.size());
         assertEquals(booking2.getId(), bookingList.get(0).getId());
     }
 
     @Test
-    void shouldFindByBookerIdPast() {
+    void shouldFindByFilterForBookerPastState() {
         booking2.setStart(LocalDateTime.now().minusDays(1));
         booking2.setEnd(LocalDateTime.now().minusHours(1));
         em.persist(user1);
@@ -123,13 +128,13 @@ class BookingRepositoryTest {
         em.persist(booking2);
 
         List<Booking> bookingList = bookingRepository
-                .findByBookerIdPast(user1.getId(), Pageable.ofSize(1));
+                .findByFilter(filter(BookingFilter.Role.BOOKER, user1, State.PAST));
         assertEquals(1, bookingList.size());
         assertEquals(booking2.getId(), bookingList.get(0).getId());
     }
 
     @Test
-    void shouldFindByBookerAndStartIsAfter() {
+    void shouldFindByFilterForBookerFutureState() {
         booking2.setStart(LocalDateTime.now().plusHours(1));
         booking2.setEnd(LocalDateTime.now().plusHours(5));
         em.persist(user1);
@@ -140,13 +145,13 @@ class BookingRepositoryTest {
         em.persist(booking2);
 
         List<Booking> bookingList = bookingRepository
-                .findByBookerAndStartIsAfter(user1, LocalDateTime.now(), Pageable.ofSize(1));
+                .findByFilter(filter(BookingFilter.Role.BOOKER, user1, State.FUTURE));
         assertEquals(1, bookingList.size());
         assertEquals(booking2.getId(), bookingList.get(0).getId());
     }
 
     @Test
-    void shouldFindByItemOwner() {
+    void shouldFindByFilterForOwnerAllState() {
         em.persist(user1);
         em.persist(user2);
         em.persist(item1);
@@ -155,13 +160,34 @@ class BookingRepositoryTest {
         em.persist(booking2);
 
         List<Booking> bookingList = bookingRepository
-                .findByItemOwner(user1, Pageable.ofSize(1));
+                .findByFilter(filter(BookingFilter.Role.OWNER, user1, State.ALL));
         assertEquals(1, bookingList.size());
         assertEquals(booking1.getId(), bookingList.get(0).getId());
     }
 
     @Test
-    void shouldFindByItemOwnerIdCurrent() {
+    void shouldFindShortByFilterForOwner() {
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(item1);
+        em.persist(item2);
+        em.persist(booking1);
+        em.persist(booking2);
+        em.flush();
+        em.clear();
+
+        List<BookingShortDto> bookingList = bookingRepository
+                .findShortByFilter(filter(BookingFilter.Role.OWNER, user1, State.WAITING));
+        assertEquals(1, bookingList.size());
+        BookingShortDto booking = bookingList.get(0);
+        assertEquals(booking1.getId(), booking.getId());
+        assertEquals(Status.WAITING, booking.getStatus());
+        assertEquals(new BookingShortDto.ItemRef(item1.getId(), "Wand"), booking.getItem());
+        assertEquals(new BookingShortDto.BookerRef(user2.getId()), booking.getBooker());
+    }
+
+    @Test
+    void shouldFindByFilterForOwnerCurrentState() {
         em.persist(user1);
         em.persist(user2);
         em.persist(item1);
@@ -170,13 +196,13 @@ class BookingRepositoryTest {
         em.persist(booking2);
 
         List<Booking> bookingList = bookingRepository
-                .findByItemOwnerIdCurrent(user1.getId(), Pageable.ofSize(1));
+                .findByFilter(filter(BookingFilter.Role.OWNER, user1, State.CURRENT));
         assertEquals(1, bookingList.size());
         assertEquals(booking1.getId(), bookingList.get(0).getId());
     }
 
     @Test
-    void shouldFindByItemOwnerIdPast() {
+    void shouldFindByFilterForOwnerPastState() {
         booking1.setStart(LocalDateTime.now().minusDays(1));
         booking1.setEnd(LocalDateTime.now().minusHours(5));
         em.persist(user1);
@@ -187,13 +213,13 @@ class BookingRepositoryTest {
         em.persist(booking2);
 
         List<Booking> bookingList = bookingRepository
-                .findByItemOwnerIdPast(user1.getId(), Pageable.ofSize(1));
+                .findByFilter(filter(BookingFilter.Role.OWNER, user1, State.PAST));
         assertEquals(1, bookingList.size());
         assertEquals(booking1.getId(), bookingList.get(0).getId());
     }
 
     @Test
-    void shouldFindByItemOwnerAndStartAfter() {
+    void shouldFindByFilterForOwnerFutureState() {
         booking1.setStart(LocalDateTime.now().plusHours(1));
         booking1.setEnd(LocalDateTime.now().plusHours(5));
         em.persist(user1);
@@ -204,14 +230,14 @@ class BookingRepositoryTest {
         em.persist(booking2);
 
         List<Booking> bookingList = bookingRepository
-                .findByItemOwnerAndStartAfter(user1, LocalDateTime.now(), Pageable.ofSize(1));
+                .findByFilter(filter(BookingFilter.Role.OWNER, user1, State.FUTURE));
         assertEquals(1, bookingList.size());
         assertEquals(booking1.getId(), bookingList.get(0).getId());
     }
 
     @Test
-    void shouldFindByItemOwnerAndStatusEquals() {
-        booking1.setStatus(Status.APPROVED);
+    void shouldFindByFilterForOwnerRejectedState() {
+        booking1.setStatus(Status.REJECTED);
         em.persist(user1);
         em.persist(user2);
         em.persist(item1);
@@ -220,7 +246,7 @@ class BookingRepositoryTest {
         em.persist(booking2);
 
         List<Booking> bookingList = bookingRepository
-                .findByItemOwnerAndStatusEquals(user1, Status.APPROVED, Pageable.ofSize(1));
+                .findByFilter(filter(BookingFilter.Role.OWNER, user1, State.REJECTED));
         assertEquals(1, bookingList.size());
         assertEquals(booking1.getId(), bookingList.get(0).getId());
     }
@@ -266,4 +292,277 @@ class BookingRepositoryTest {
         assertTrue(bookings.isPresent());
         assertEquals(booking1.getId(), bookings.get().getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFindLastBookingsByItemIds() {
+        booking1.setStatus(Status.APPROVED);
+        booking1.setStart(LocalDateTime.now().minusDays(2));
+        booking1.setEnd(LocalDateTime.now().minusDays(1));
+        booking2.setStatus(Status.APPROVED);
+        booking2.setStart(LocalDateTime.now().minusDays(3));
+        booking2.setEnd(LocalDateTime.now().minusDays(2));
+        Booking booking3 = Booking.builder()
+                .start(LocalDateTime.now().minusDays(5))
+                .end(LocalDateTime.now().minusDays(4))
+                .item(item1)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build();
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(item1);
+        em.persist(item2);
+        em.persist(booking1);
+        em.persist(booking2);
+        em.persist(booking3);
+
+        List<Booking> bookingList = bookingRepository
+                .findLastBookingsByItemIds(List.of(item1.getId(), item2.getId()), LocalDateTime.now(), Status.APPROVED);
+        assertEquals(2, bookingList.size());
+        assertTrue(bookingList.contains(booking1));
+        assertTrue(bookingList.contains(booking2));
+    }
+
+    @Test
+    void shouldFindNextBookingsByItemIds() {
+        booking1.setStatus(Status.APPROVED);
+        Booking booking3 = Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(item1)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build();
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(item1);
+        em.persist(item2);
+        em.persist(booking1);
+        em.persist(booking2);
+        em.persist(booking3);
+
+        List<Booking> bookingList = bookingRepository
+                .findNextBookingsByItemIds(List.of(item1.getId(), item2.getId()), LocalDateTime.now(), Status.APPROVED);
+        assertEquals(1, bookingList.size());
+        assertEquals(booking1.getId(), bookingList.get(0).getId());
+    }
+
+    @Test
+    void shouldFindLastAndNextBookingsByItemId() {
+        booking1.setStatus(Status.APPROVED);
+        booking1.setStart(LocalDateTime.now().minusDays(2));
+        booking1.setEnd(LocalDateTime.now().minusDays(1));
+        Booking booking3 = Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(item1)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build();
+        Booking booking4 = Booking.builder()
+                .start(LocalDateTime.now().plusDays(3))
+                .end(LocalDateTime.now().plusDays(4))
+                .item(item1)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build();
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(item1);
+        em.persist(booking1);
+        em.persist(booking3);
+        em.persist(booking4);
+
+        List<Booking> bookingList = bookingRepository
+                .findLastAndNextBookingsByItemId(item1.getId(), LocalDateTime.now(), Status.APPROVED);
+        assertEquals(2, bookingList.size());
+        assertTrue(bookingList.contains(booking1));
+        assertTrue(bookingList.contains(booking3));
+    }
+
+    @Test
+    void shouldApproveOnlyWaitingBookingOfOwnerWithoutOverlaps() {
+        Booking overlapping = Booking.builder()
+                .start(booking1.getStart().plusMinutes(30))
+                .end(booking1.getEnd().plusMinutes(30))
+                .item(item1)
+                .booker(user2)
+                .status(Status.WAITING)
+                .build();
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(item1);
+        em.persist(item2);
+        em.persist(booking1);
+        em.persist(booking2);
+        em.persist(overlapping);
+
+        assertEquals(0, bookingRepository.approveIfWaiting(booking1.getId(), user2.getId()));
+        assertEquals(1, bookingRepository.approveIfWaiting(booking1.getId(), user1.getId()));
+        assertEquals(0, bookingRepository.approveIfWaiting(booking1.getId(), user1.getId()));
+        assertEquals(0, bookingRepository.approveIfWaiting(overlapping.getId(), user1.getId()));
+        assertEquals(Status.APPROVED, bookingRepository.findById(booking1.getId()).orElseThrow().getStatus());
+        assertEquals(Status.WAITING, bookingRepository.findById(overlapping.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldDetachOnlyChangedBookingsAfterStatusUpdate() {
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(item1);
+        em.persist(item2);
+        em.persist(booking1);
+        em.persist(booking2);
+
+        assertEquals(1, bookingRepository.approveAllIfWaiting(List.of(booking1.getId()), user1.getId()));
+
+        assertFalse(em.getEntityManager().contains(booking1));
+        assertTrue(em.getEntityManager().contains(booking2));
+        assertTrue(em.getEntityManager().contains(item1));
+        assertTrue(em.getEntityManager().contains(user1));
+        assertEquals(Status.APPROVED, bookingRepository.findById(booking1.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldRejectOnlyWaitingBookingOfOwner() {
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(item1);
+        em.persist(item2);
+        em.persist(booking1);
+        em.persist(booking2);
+
+        assertEquals(0, bookingRepository.rejectIfWaiting(booking2.getId(), user1.getId()));
+        assertEquals(1, bookingRepository.rejectIfWaiting(booking2.getId(), user2.getId()));
+        assertEquals(0, bookingRepository.approveIfWaiting(booking2.getId(), user2.getId()));
+        assertEquals(Status.REJECTED, bookingRepository.findById(booking2.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldFindByFilterAfterCursor() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        booking1.setStart(start);
+        booking1.setEnd(start.plusHours(1));
+        Booking booking3 = Booking.builder()
+                .start(start)
+                .end(start.plusHours(2))
+                .item(item1)
+                .booker(user2)
+                .status(Status.WAITING)
+                .build();
+        Booking booking4 = Booking.builder()
+                .start(start.minusDays(3))
+                .end(start.minusDays(2))
+                .item(item1)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build();
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(item1);
+        em.persist(booking1);
+        em.persist(booking3);
+        em.persist(booking4);
+
+        List<Booking> firstPage = bookingRepository.findByFilter(BookingFilter.builder()
+                .role(BookingFilter.Role.BOOKER)
+                .userId(user2.getId())
+                .state(State.ALL)
+                .limit(2)
+                .build());
+        assertEquals(List.of(booking3.getId(), booking1.getId()),
+                List.of(firstPage.get(0).getId(), firstPage.get(1).getId()));
+
+        List<Booking> secondPage = bookingRepository.findByFilter(BookingFilter.builder()
+                .role(BookingFilter.Role.BOOKER)
+                .userId(user2.getId())
+                .state(State.ALL)
+                .afterStart(booking1.getStart())
+                .afterId(booking1.getId())
+                .limit(2)
+                .build());
+        assertEquals(1, secondPage.size());
+        assertEquals(booking4.getId(), secondPage.get(0).getId());
+
+        List<Booking> waiting = bookingRepository.findByFilter(BookingFilter.builder()
+                .role(BookingFilter.Role.OWNER)
+                .userId(user1.getId())
+                .state(State.WAITING)
+                .afterStart(booking3.getStart())
+                .afterId(booking3.getId())
+                .limit(10)
+                .build());
+        assertEquals(1, waiting.size());
+        assertEquals(booking1.getId(), waiting.get(0).getId());
+    }
+
+    @Test
+    void shouldFindByFilterForItemInDateWindowAscending() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        Booking first = Booking.builder()
+                .start(start)
+                .end(start.plusDays(1))
+                .item(item1)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build();
+        Booking second = Booking.builder()
+                .start(start.plusDays(2))
+                .end(start.plusDays(3))
+                .item(item1)
+                .booker(user2)
+                .status(Status.WAITING)
+                .build();
+        Booking outside = Booking.builder()
+                .start(start.plusDays(5))
+                .end(start.plusDays(6))
+                .item(item1)
+                .booker(user2)
+                .status(Status.WAITING)
+                .build();
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(item1);
+        em.persist(item2);
+        em.persist(booking2);
+        em.persist(first);
+        em.persist(second);
+        em.persist(outside);
+
+        List<Booking> bookings = bookingRepository.findByFilter(BookingFilter.builder()
+                .role(BookingFilter.Role.BOOKER)
+                .userId(user2.getId())
+                .state(State.ALL)
+                .itemId(item1.getId())
+                .rangeStart(start.plusHours(12))
+                .rangeEnd(start.plusDays(4))
+                .direction(Sort.Direction.ASC)
+                .limit(10)
+                .build());
+        assertEquals(List.of(first.getId(), second.getId()),
+                bookings.stream().map(Booking::getId).collect(Collectors.toList()));
+
+        bookings = bookingRepository.findByFilter(BookingFilter.builder()
+                .role(BookingFilter.Role.BOOKER)
+                .userId(user2.getId())
+                .state(State.ALL)
+                .itemId(item1.getId())
+                .direction(Sort.Direction.ASC)
+                .afterStart(first.getStart())
+                .afterId(first.getId())
+                .offset(1)
+                .limit(10)
+                .build());
+        assertEquals(List.of(outside.getId()), bookings.stream().map(Booking::getId).collect(Collectors.toList()));
+    }
+
+    private static BookingFilter filter(BookingFilter.Role role, User user, State state) {
+        return BookingFilter.builder()
+                .role(role)
+                .userId(user.getId())
+                .state(state)
+                .now(LocalDateTime.now())
+                .limit(1)
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.ShareItServer;
+import ru.practicum.booking.model.Status;
+import ru.practicum.booking.service.BookingService;
+import ru.practicum.exception.BadRequestException;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.item.model.Item;
+import ru.practicum.item.repository.ItemRepository;
+import ru.practicum.user.model.User;
+import ru.practicum.user.repository.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Подтверждение и отклонение броней (BookingService.changeStatus) под конкуренцией: каждую бронь
+ * одновременно пытаются подтвердить и отклонить два потока, а все брони относятся к itemCount вещам.
+ * Время измеряется на пакет из BATCH_SIZE вызовов в каждом потоке. Запуск:
+ * mvn -pl server test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath ru.practicum.shareit.booking.service.BookingApprovalBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = BookingApprovalBenchmark.BATCH_SIZE)
+@Measurement(iterations = 5, batchSize = BookingApprovalBenchmark.BATCH_SIZE)
+@Threads(BookingApprovalBenchmark.THREADS)
+@Fork(1)
+public class BookingApprovalBenchmark {
+
+    static final int BATCH_SIZE = 500;
+    static final int THREADS = 8;
+
+    @Param({"1", "16"})
+    int itemCount;
+
+    ConfigurableApplicationContext context;
+    BookingService bookingService;
+    JdbcTemplate jdbcTemplate;
+    User owner;
+    User booker;
+    List<Item> items = new ArrayList<>();
+    long[] bookingIds;
+    AtomicInteger next = new AtomicInteger();
+    LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        bookingService = context.getBean(BookingService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        owner = userRepository.save(User.builder().name("owner").email("owner@ex.com").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@ex.com").build());
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(itemRepository.save(Item.builder()
+                    .name("item " + i)
+                    .description("description " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build()));
+        }
+    }
+
+    // Брони одной вещи не пересекаются, поэтому каждую выигравшую попытку подтверждения пропускают проверки.
+    @Setup(Level.Iteration)
+    public void createWaitingBookings() {
+        int count = THREADS * BATCH_SIZE / 2;
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = from.plusHours(i);
+            rows.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(30)),
+                    items.get(i % itemCount).getId(), booker.getId(), Status.WAITING.name(), owner.getId()});
+        }
+        from = from.plusHours(count);
+        jdbcTemplate.batchUpdate("insert into bookings (start_date, end_date, item_id, booker_id, status, owner_id) " +
+                "values (?, ?, ?, ?, ?, ?)", rows);
+        bookingIds = jdbcTemplate.queryForList("select booking_id from bookings where status = 'WAITING' " +
+                        "order by booking_id", Long.class).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        next.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Status changeStatus() {
+        int call = next.getAndIncrement();
+        if (call / 2 >= bookingIds.length) {
+            return null;
+        }
+        try {
+            return bookingService.changeStatus(owner.getId(), bookingIds[call / 2], call % 2 == 0).getStatus();
+        } catch (BadRequestException | ValidationException e) {
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookingApprovalBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,267 @@
+package ru.practicum.shareit.booking.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.booking.dto.BookingStatusChangeDto;
+import ru.practicum.booking.dto.BookingStatusResultDto;
+import ru.practicum.booking.model.Booking;
+import ru.practicum.booking.model.Status;
+import ru.practicum.booking.repository.BookingRepository;
+import ru.practicum.booking.service.BookingService;
+import ru.practicum.exception.BadRequestException;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.item.model.Item;
+import ru.practicum.item.repository.ItemRepository;
+import ru.practicum.user.model.User;
+import ru.practicum.user.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Одновременно меняет статусы бронирований на встроенном PostgreSQL и проверяет,
+ * что из пересекающихся подтвержденной остается только одна бронь, а решение по брони принимается один раз.
+ * Пачка решений, столкнувшаяся с одновременным подтверждением, возвращает ошибку только по пересекающейся брони.
+ */
+@SpringBootTest
+class BookingApprovalConcurrencyTest {
+
+    private static final int ROUNDS = 5;
+    private static final int THREADS = 32;
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    DataSource dataSource;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.flyway.locations",
+                () -> "classpath:db/migration/common,classpath:db/migration/postgresql");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Test
+    void shouldApproveOnlyOneOfConcurrentOverlappingBookings() throws Exception {
+        User owner = userRepository.save(User.builder().name("Owner").email("owner@mail.com").build());
+        User booker = userRepository.save(User.builder().name("Booker").email("booker@mail.com").build());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Item item = itemRepository.save(Item.builder()
+                        .name("Item " + round)
+                        .description("Description")
+                        .available(true)
+                        .owner(owner)
+                        .build());
+                LocalDateTime start = LocalDateTime.now().plusDays(1);
+                List<Long> bookingIds = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    bookingIds.add(bookingRepository.save(Booking.builder()
+                            .start(start.plusMinutes(i))
+                            .end(start.plusDays(1))
+                            .item(item)
+                            .booker(booker)
+                            .status(Status.WAITING)
+                            .build()).getId());
+                }
+
+                AtomicInteger approved = new AtomicInteger();
+                AtomicInteger conflicts = new AtomicInteger();
+                CountDownLatch ready = new CountDownLatch(THREADS);
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (Long bookingId : bookingIds) {
+                    futures.add(executor.submit(() -> {
+                        ready.countDown();
+                        go.await();
+                        try {
+                            bookingService.changeStatus(owner.getId(), bookingId, true);
+                            approved.incrementAndGet();
+                        } catch (ValidationException e) {
+                            conflicts.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                ready.await();
+                go.countDown();
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+
+                assertEquals(1, approved.get());
+                assertEquals(THREADS - 1, conflicts.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Integer overlaps = jdbcTemplate.queryForObject("select count(*) from bookings a join bookings b " +
+                "on a.item_id = b.item_id and a.booking_id < b.booking_id " +
+                "and a.start_date < b.end_date and b.start_date < a.end_date " +
+                "where a.status = 'APPROVED' and b.status = 'APPROVED'", Integer.class);
+        assertEquals(0, overlaps);
+    }
+
+    @Test
+    void shouldChangeStatusOnceWhenApprovedAndRejectedConcurrently() throws Exception {
+        User owner = userRepository.save(User.builder().name("Owner").email("owner2@mail.com").build());
+        User booker = userRepository.save(User.builder().name("Booker").email("booker2@mail.com").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Item")
+                .description("Description")
+                .available(true)
+                .owner(owner)
+                .build());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime start = LocalDateTime.now().plusDays(10 + 2 * round);
+                Long bookingId = bookingRepository.save(Booking.builder()
+                        .start(start)
+                        .end(start.plusDays(1))
+                        .item(item)
+                        .booker(booker)
+                        .status(Status.WAITING)
+                        .build()).getId();
+
+                List<Status> changed = new CopyOnWriteArrayList<>();
+                AtomicInteger rejected = new AtomicInteger();
+                CountDownLatch ready = new CountDownLatch(THREADS);
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    boolean approve = i % 2 == 0;
+                    futures.add(executor.submit(() -> {
+                        ready.countDown();
+                        go.await();
+                        try {
+                            changed.add(bookingService.changeStatus(owner.getId(), bookingId, approve).getStatus());
+                        } catch (BadRequestException e) {
+                            rejected.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                ready.await();
+                go.countDown();
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+
+                assertEquals(1, changed.size());
+                assertEquals(THREADS - 1, rejected.get());
+                assertEquals(changed.get(0), bookingRepository.findById(bookingId).orElseThrow().getStatus());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldReportOnlyBookingOverlappingConcurrentApprovalInBatch() throws Exception {
+        User owner = userRepository.save(User.builder().name("Owner").email("owner3@mail.com").build());
+        User booker = userRepository.save(User.builder().name("Booker").email("booker3@mail.com").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Item")
+                .description("Description")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(30);
+        Long concurrentId = saveWaiting(item, booker, start, start.plusDays(2));
+        Long overlappingId = saveWaiting(item, booker, start.plusDays(1), start.plusDays(3));
+        Long freeId = saveWaiting(item, booker, start.plusDays(5), start.plusDays(6));
+        Long rejectedId = saveWaiting(item, booker, start.plusDays(1), start.plusDays(2));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("update bookings set status = 'APPROVED' where booking_id = " + concurrentId);
+            }
+            Future<List<BookingStatusResultDto>> batch = executor.submit(() -> bookingService.changeStatuses(
+                    owner.getId(), List.of(
+                            new BookingStatusChangeDto(overlappingId, true),
+                            new BookingStatusChangeDto(freeId, true),
+                            new BookingStatusChangeDto(rejectedId, false))));
+            // Подтверждение пачки ждет решения открытой транзакции на ограничении EX_BOOKINGS_APPROVED_OVERLAP
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (jdbcTemplate.queryForObject("select count(*) from pg_locks where not granted", Integer.class) == 0) {
+                assertTrue(System.nanoTime() < deadline, "Пачка не дошла до ожидания блокировки");
+                Thread.sleep(10);
+            }
+            connection.commit();
+
+            assertEquals(List.of(
+                    new BookingStatusResultDto(overlappingId, Status.WAITING,
+                            String.format("Объект id %d уже забронирован на эти даты", item.getId())),
+                    new BookingStatusResultDto(freeId, Status.APPROVED, null),
+                    new BookingStatusResultDto(rejectedId, Status.REJECTED, null)),
+                    batch.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(Status.APPROVED, bookingRepository.findById(freeId).orElseThrow().getStatus());
+        assertEquals(Status.WAITING, bookingRepository.findById(overlappingId).orElseThrow().getStatus());
+    }
+
+    private Long saveWaiting(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(Status.WAITING)
+                .build()).getId();
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
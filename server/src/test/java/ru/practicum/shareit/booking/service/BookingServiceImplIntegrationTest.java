@@ -5,6 +5,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.booking.dto.BookingOutputDto;
+import ru.practicum.booking.dto.BookingStatusChangeDto;
+import ru.practicum.booking.dto.BookingStatusResultDto;
 import ru.practicum.booking.model.Booking;
 import ru.practicum.booking.model.State;
 import ru.practicum.booking.model.Status;
@@ -83,4 +85,50 @@ class BookingServiceImplIntegrationTest {
         List<BookingOutputDto> bookingDto = bookingService.getAllByBooker(user2.getId(), State.CURRENT, 0, 10);
         assertAll(() -> assertEquals(1, bookingDtos.size()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldChangeStatusesApprovingFirstOfOverlappingBookings() {
+        User owner = userRepository.save(User.builder().name("Ron").email("ron@ex.com").build());
+        User booker = userRepository.save(User.builder().name("Ginny").email("ginny@ex.com").build());
+        Item broom = itemRepository.save(Item.builder()
+                .name("Broom")
+                .description("Nimbus 2000")
+                .available(Boolean.TRUE)
+                .owner(owner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking first = bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(start.plusDays(2))
+                .item(broom)
+                .booker(booker)
+                .status(Status.WAITING)
+                .build());
+        Booking overlapping = bookingRepository.save(Booking.builder()
+                .start(start.plusDays(1))
+                .end(start.plusDays(3))
+                .item(broom)
+                .booker(booker)
+                .status(Status.WAITING)
+                .build());
+        Booking rejected = bookingRepository.save(Booking.builder()
+                .start(start.plusDays(1))
+                .end(start.plusDays(3))
+                .item(broom)
+                .booker(booker)
+                .status(Status.WAITING)
+                .build());
+
+        List<BookingStatusResultDto> results = bookingService.changeStatuses(owner.getId(), List.of(
+                new BookingStatusChangeDto(first.getId(), true),
+                new BookingStatusChangeDto(overlapping.getId(), true),
+                new BookingStatusChangeDto(rejected.getId(), false)));
+
+        assertEquals(List.of(Status.APPROVED, Status.WAITING, Status.REJECTED),
+                List.of(results.get(0).getStatus(), results.get(1).getStatus(), results.get(2).getStatus()));
+        assertEquals(String.format("Объект id %d уже забронирован на эти даты", broom.getId()),
+                results.get(1).getError());
+        assertEquals(Status.APPROVED, bookingRepository.findById(first.getId()).orElseThrow().getStatus());
+        assertEquals(Status.WAITING, bookingRepository.findById(overlapping.getId()).orElseThrow().getStatus());
+    }
+}
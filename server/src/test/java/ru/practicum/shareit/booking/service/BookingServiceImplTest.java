@@ -1,35 +1,59 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.booking.cache.BookingQueryCache;
 import ru.practicum.booking.dto.BookingDto;
 import ru.practicum.booking.dto.BookingOutputDto;
+import ru.practicum.booking.dto.BookingShortDto;
+import ru.practicum.booking.dto.BookingStatusChangeDto;
+import ru.practicum.booking.dto.BookingStatusResultDto;
 import ru.practicum.booking.mapper.BookingMapper;
+import ru.practicum.booking.index.BookingIntervalIndex;
 import ru.practicum.booking.model.Booking;
 import ru.practicum.booking.model.State;
 import ru.practicum.booking.model.Status;
+import ru.practicum.booking.repository.BookingFilter;
 import ru.practicum.booking.repository.BookingRepository;
 import ru.practicum.booking.service.BookingServiceImpl;
 import ru.practicum.exception.BadRequestException;
 import ru.practicum.exception.NotFoundException;
+import ru.practicum.exception.ValidationException;
 import ru.practicum.item.model.Item;
 import ru.practicum.item.repository.ItemRepository;
+import ru.practicum.pagination.Cursor;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.shareit.MutableClock;
+import ru.practicum.user.cache.UserExistenceCache;
 import ru.practicum.user.model.User;
 import ru.practicum.user.repository.UserRepository;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -45,6 +69,21 @@ public class BookingServiceImplTest {
     @Mock
     ItemRepository itemRepository;
 
+    @Mock
+    BookingIntervalIndex bookingIndex;
+
+    @Spy
+    BookingQueryCache queryCache = new BookingQueryCache(new SimpleMeterRegistry(), Duration.ofSeconds(1));
+
+    @Spy
+    MutableClock clock = new MutableClock(Instant.parse("2030-01-01T10:00:00.250Z"), ZoneOffset.UTC);
+
+    @Mock
+    UserExistenceCache userExistenceCache;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
     @InjectMocks
     BookingServiceImpl bookingService;
 
@@ -83,7 +122,7 @@ public class BookingServiceImplTest {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
 
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findWithDetailsById(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
 
         when(bookingRepository.save(any(Booking.class)))
@@ -98,11 +137,43 @@ public class BookingServiceImplTest {
                 .save(any());
     }
 
+    @Test
+    void shouldNotCreateBookingAndThrowExceptionWhenApprovedBookingOverlaps() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(user2));
+        when(itemRepository.findWithDetailsById(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(bookingRepository.existsOverlapping(eq(item.getId()), any(), any(), eq(Status.APPROVED)))
+                .thenReturn(true);
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.addBooking(user2.getId(), bookingDto));
+        verify(bookingRepository, Mockito.never())
+                .save(any());
+    }
+
+    @Test
+    void shouldNotCreateBookingAndThrowExceptionWhenIndexHasOverlappingBooking() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(user2));
+        when(itemRepository.findWithDetailsById(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(bookingIndex.isEnabled())
+                .thenReturn(true);
+        when(bookingIndex.isBooked(item.getId(), bookingDto.getStart(), bookingDto.getEnd()))
+                .thenReturn(true);
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.addBooking(user2.getId(), bookingDto));
+        verify(bookingRepository, Mockito.never())
+                .existsOverlapping(anyLong(), any(), any(), any());
+    }
+
     @Test
     void shouldNotCreateBookingAndThrowExceptionWhenItemNotFound() {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findWithDetailsById(anyLong()))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class,
@@ -120,7 +191,7 @@ public class BookingServiceImplTest {
 
     @Test
     void shouldNotCreateBookingAndThrowExceptionWhenOwnerTryingToBookHisItem() {
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findWithDetailsById(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user2));
@@ -136,7 +207,7 @@ public class BookingServiceImplTest {
         itemTest.setAvailable(Boolean.FALSE);
         bookingDto.setItemId(2L);
 
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findWithDetailsById(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user2));
@@ -152,7 +223,7 @@ public class BookingServiceImplTest {
         bookingDto.setItemId(2L);
         bookingDto.setEnd(LocalDateTime.now().minusHours(1));
 
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findWithDetailsById(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user2));
@@ -163,40 +234,59 @@ public class BookingServiceImplTest {
 
     @Test
     void shouldChangeStatusWhenOwnerChangeToApprove() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.approveIfWaiting(booking.getId(), user1.getId()))
+                .thenReturn(1);
+        when(bookingRepository.findWithDetailsById(anyLong()))
                 .thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any()))
-                .thenReturn(booking);
-        booking.setStatus(Status.WAITING);
+        booking.setStatus(Status.APPROVED);
         BookingOutputDto response = bookingService.changeStatus(user1.getId(), booking.getId(), true);
 
         assertEquals(Status.APPROVED, response.getStatus());
-        verify(bookingRepository, Mockito.times(2))
+        verify(bookingIndex, Mockito.times(1))
+                .update(booking);
+        verify(bookingRepository, Mockito.never())
                 .save(any());
     }
 
     @Test
-    void shouldChangeStatusWhenOwnerChangeToReject() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findById(anyLong()))
+    void shouldNotChangeStatusAndThrowExceptionWhenApprovedBookingOverlaps() {
+        when(bookingRepository.approveIfWaiting(booking.getId(), user1.getId()))
+                .thenReturn(0);
+        when(bookingRepository.findWithDetailsById(anyLong()))
                 .thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any()))
-                .thenReturn(booking);
         booking.setStatus(Status.WAITING);
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.changeStatus(user1.getId(), booking.getId(), true));
+        verify(bookingIndex, Mockito.never())
+                .update(any());
+    }
+
+    @Test
+    void shouldNotChangeStatusAndThrowExceptionWhenConcurrentApprovalWins() {
+        when(bookingRepository.approveIfWaiting(booking.getId(), user1.getId()))
+                .thenThrow(new DataIntegrityViolationException("EX_BOOKINGS_APPROVED_OVERLAP"));
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.changeStatus(user1.getId(), booking.getId(), true));
+    }
+
+    @Test
+    void shouldChangeStatusWhenOwnerChangeToReject() {
+        when(bookingRepository.rejectIfWaiting(booking.getId(), user1.getId()))
+                .thenReturn(1);
+        when(bookingRepository.findWithDetailsById(anyLong()))
+                .thenReturn(Optional.of(booking));
+        booking.setStatus(Status.REJECTED);
         BookingOutputDto response = bookingService.changeStatus(user1.getId(), booking.getId(), false);
 
         assertEquals(Status.REJECTED, response.getStatus());
-        verify(bookingRepository, Mockito.times(2)).save(any());
+        verify(bookingRepository, Mockito.never()).approveIfWaiting(anyLong(), anyLong());
     }
 
     @Test
     void shouldNotChangeStatusAndThrowExceptionWhenBookingNotFound() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findWithDetailsById(anyLong()))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class,
@@ -204,19 +294,27 @@ public class BookingServiceImplTest {
     }
 
     @Test
-    void shouldNotChangeStatusAndThrowExceptionWhenNotItemOwner() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+    void shouldNotChangeStatusAndThrowExceptionWhenUserNotFound() {
+        doThrow(NotFoundException.class)
+                .when(userExistenceCache).check(anyLong());
 
         assertThrows(NotFoundException.class,
                 () -> bookingService.changeStatus(1L, 1L, true));
     }
 
+    @Test
+    void shouldNotChangeStatusAndThrowExceptionWhenNotItemOwner() {
+        when(bookingRepository.findWithDetailsById(anyLong()))
+                .thenReturn(Optional.of(booking));
+        booking.setStatus(Status.WAITING);
+
+        assertThrows(NotFoundException.class,
+                () -> bookingService.changeStatus(user2.getId(), booking.getId(), true));
+    }
+
     @Test
     void shouldNotChangeStatusAndThrowExceptionWhenBookingAlreadyApproved() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findWithDetailsById(anyLong()))
                 .thenReturn(Optional.of(booking));
 
         booking.setStatus(Status.APPROVED);
@@ -225,11 +323,201 @@ public class BookingServiceImplTest {
                 () -> bookingService.changeStatus(1L, 1L, true));
     }
 
+    @Test
+    void shouldNotChangeStatusAndThrowExceptionWhenBookingAlreadyRejected() {
+        when(bookingRepository.findWithDetailsById(anyLong()))
+                .thenReturn(Optional.of(booking));
+
+        booking.setStatus(Status.REJECTED);
+
+        assertThrows(BadRequestException.class,
+                () -> bookingService.changeStatus(1L, 1L, false));
+    }
+
+    @Test
+    void shouldChangeStatusesWithOneUpdatePerDecision() {
+        runInTransaction();
+        Booking other = Booking.builder()
+                .id(2L)
+                .start(booking.getEnd())
+                .end(booking.getEnd().plusHours(1))
+                .item(item)
+                .booker(user2)
+                .status(Status.WAITING)
+                .build();
+        Booking rejected = Booking.builder()
+                .id(3L)
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(item)
+                .booker(user2)
+                .status(Status.WAITING)
+                .build();
+        booking.setStatus(Status.WAITING);
+        when(bookingRepository.findAllWithDetailsByIdIn(List.of(1L, 2L, 3L, 4L)))
+                .thenReturn(List.of(booking, other, rejected));
+        when(bookingRepository.findAllWithDetailsByIdIn(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(
+                        withStatus(booking, Status.APPROVED),
+                        withStatus(other, Status.WAITING),
+                        withStatus(rejected, Status.REJECTED)));
+
+        List<BookingStatusResultDto> results = bookingService.changeStatuses(user1.getId(), List.of(
+                new BookingStatusChangeDto(1L, true),
+                new BookingStatusChangeDto(2L, true),
+                new BookingStatusChangeDto(3L, false),
+                new BookingStatusChangeDto(4L, true)));
+
+        assertEquals(List.of(
+                new BookingStatusResultDto(1L, Status.APPROVED, null),
+                new BookingStatusResultDto(2L, Status.WAITING, "Объект id 1 уже забронирован на эти даты"),
+                new BookingStatusResultDto(3L, Status.REJECTED, null),
+                new BookingStatusResultDto(4L, null, "Бронь id 4  не найдена")), results);
+        verify(bookingRepository).approveAllIfWaiting(List.of(1L, 2L), user1.getId());
+        verify(bookingRepository).rejectAllIfWaiting(List.of(3L), user1.getId());
+        verify(bookingIndex, Mockito.times(2)).update(any());
+    }
+
+    @Test
+    void shouldNotApproveBookingOverlappingEarlierApprovalInSameBatch() {
+        runInTransaction();
+        Booking overlapping = Booking.builder()
+                .id(2L)
+                .start(booking.getStart().plusMinutes(30))
+                .end(booking.getEnd().plusMinutes(30))
+                .item(item)
+                .booker(user2)
+                .build();
+        booking.setStatus(Status.WAITING);
+        overlapping.setStatus(Status.WAITING);
+        when(bookingRepository.findAllWithDetailsByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(booking, overlapping));
+        when(bookingRepository.findAllWithDetailsByIdIn(List.of(1L)))
+                .thenReturn(List.of(withStatus(booking, Status.APPROVED)));
+
+        List<BookingStatusResultDto> results = bookingService.changeStatuses(user1.getId(), List.of(
+                new BookingStatusChangeDto(1L, true),
+                new BookingStatusChangeDto(2L, true)));
+
+        assertEquals(Status.APPROVED, results.get(0).getStatus());
+        assertEquals("Объект id 1 уже забронирован на эти даты", results.get(1).getError());
+        verify(bookingRepository).approveAllIfWaiting(List.of(1L), user1.getId());
+        verify(bookingRepository, never()).rejectAllIfWaiting(any(), anyLong());
+    }
+
+    @Test
+    void shouldChangeStatusesAgainWhenOverlappingBookingApprovedConcurrently() {
+        runInTransaction();
+        Booking rejected = Booking.builder()
+                .id(2L)
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(item)
+                .booker(user2)
+                .build();
+        booking.setStatus(Status.WAITING);
+        rejected.setStatus(Status.WAITING);
+        when(bookingRepository.findAllWithDetailsByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(booking, rejected))
+                .thenReturn(List.of(booking, rejected))
+                .thenReturn(List.of(booking, withStatus(rejected, Status.REJECTED)));
+        when(bookingRepository.approveAllIfWaiting(List.of(1L), user1.getId()))
+                .thenThrow(DataIntegrityViolationException.class)
+                .thenReturn(0);
+
+        List<BookingStatusResultDto> results = bookingService.changeStatuses(user1.getId(), List.of(
+                new BookingStatusChangeDto(1L, true),
+                new BookingStatusChangeDto(2L, false)));
+
+        assertEquals(List.of(
+                new BookingStatusResultDto(1L, Status.WAITING, "Объект id 1 уже забронирован на эти даты"),
+                new BookingStatusResultDto(2L, Status.REJECTED, null)), results);
+        verify(transactionTemplate, Mockito.times(2)).execute(any());
+        verify(bookingRepository).rejectAllIfWaiting(List.of(2L), user1.getId());
+    }
+
+    @Test
+    void shouldReturnErrorPerBookingWhenOverlapRepeats() {
+        runInTransaction();
+        booking.setStatus(Status.WAITING);
+        when(bookingRepository.findAllWithDetailsByIdIn(List.of(1L)))
+                .thenReturn(List.of(booking));
+        when(bookingRepository.approveAllIfWaiting(List.of(1L), user1.getId()))
+                .thenThrow(DataIntegrityViolationException.class);
+
+        List<BookingStatusResultDto> results = bookingService.changeStatuses(user1.getId(),
+                List.of(new BookingStatusChangeDto(1L, true)));
+
+        assertEquals(1, results.size());
+        assertEquals(1L, results.get(0).getBookingId());
+        assertEquals(Status.WAITING, results.get(0).getStatus());
+        assertEquals("Бронь id 1 пересекается с подтвержденным бронированием", results.get(0).getError());
+        verify(bookingRepository, Mockito.times(3)).approveAllIfWaiting(List.of(1L), user1.getId());
+        verify(transactionTemplate, Mockito.times(4)).execute(any());
+        verify(bookingIndex, never()).update(any());
+    }
+
+    @Test
+    void shouldNotChangeStatusesOfOtherOwnerBookings() {
+        runInTransaction();
+        booking.setStatus(Status.WAITING);
+        when(bookingRepository.findAllWithDetailsByIdIn(List.of(1L)))
+                .thenReturn(List.of(booking));
+
+        List<BookingStatusResultDto> results = bookingService.changeStatuses(user2.getId(),
+                List.of(new BookingStatusChangeDto(1L, false)));
+
+        assertEquals("Пользователь id 2 не является владельцем вещи", results.get(0).getError());
+        verify(bookingRepository, never()).rejectAllIfWaiting(any(), anyLong());
+        verify(bookingIndex, never()).update(any());
+    }
+
+    @Test
+    void shouldNotChangeStatusesAndThrowExceptionWhenBookingRepeated() {
+        assertThrows(BadRequestException.class, () -> bookingService.changeStatuses(user1.getId(), List.of(
+                new BookingStatusChangeDto(1L, true),
+                new BookingStatusChangeDto(1L, false))));
+        assertThrows(BadRequestException.class,
+                () -> bookingService.changeStatuses(user1.getId(), Collections.emptyList()));
+        verify(bookingRepository, never()).findAllWithDetailsByIdIn(any());
+    }
+
+    @Test
+    void shouldGetBookingsByIdsAccessibleToUserInRequestedOrder() {
+        User stranger = User.builder()
+                .id(3L)
+                .email("email@exxx.com")
+                .name("Ron Weasley")
+                .build();
+        Booking foreign = Booking.builder()
+                .id(2L)
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(Item.builder().id(2L).name("Broom").owner(stranger).build())
+                .booker(stranger)
+                .status(Status.WAITING)
+                .build();
+        Booking own = withStatus(booking, Status.APPROVED);
+        Booking booked = Booking.builder()
+                .id(3L)
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(foreign.getItem())
+                .booker(user2)
+                .status(Status.WAITING)
+                .build();
+        when(bookingRepository.findAllWithDetailsByIdIn(List.of(3L, 2L, 1L, 4L)))
+                .thenReturn(List.of(own, foreign, booked));
+
+        List<BookingOutputDto> bookings = bookingService.getBookingsByIds(user2.getId(), List.of(3L, 2L, 1L, 4L));
+
+        assertEquals(List.of(3L, 1L), List.of(bookings.get(0).getId(), bookings.get(1).getId()));
+        assertEquals(2, bookings.size());
+    }
+
     @Test
     void shouldGetBookingByIdWhenOwner() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findWithDetailsById(anyLong()))
                 .thenReturn(Optional.of(booking));
 
         BookingOutputDto response = bookingService.getBookingById(user1.getId(), booking.getId());
@@ -238,8 +526,8 @@ public class BookingServiceImplTest {
 
     @Test
     void shouldNotGetBookingByIdAndThrowExceptionWhenNotOwner() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        doThrow(NotFoundException.class)
+                .when(userExistenceCache).check(anyLong());
 
         assertThrows(NotFoundException.class,
                 () -> bookingService.getBookingById(1L, booking.getId()));
@@ -247,9 +535,7 @@ public class BookingServiceImplTest {
 
     @Test
     void shouldNotGetBookingByIdAndThrowExceptionWhenBookingNotFound() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findWithDetailsById(anyLong()))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class,
@@ -258,87 +544,136 @@ public class BookingServiceImplTest {
 
     @Test
     void shouldGetAllByBookerWhenBookerAllState() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findByBooker(any(User.class), any()))
+        when(bookingRepository.findByFilter(any()))
                 .thenReturn(Collections.singletonList(booking));
 
         List<BookingOutputDto> response = bookingService.getAllByBooker(user1.getId(), State.ALL, 0, 10);
         assertEquals(booking.getItem().getName(), response.get(0).getItem().getName());
         verify(bookingRepository, Mockito.times(1))
-                .findByBooker(any(User.class), any());
+                .findByFilter(any());
     }
 
     @Test
-    void shouldGetAllByBookerWhenBookerCurrentState() {
+    void shouldGetAllByBookerFromCacheUntilClockMovesToNextSecond() {
+        when(bookingRepository.findByFilter(any()))
+                .thenReturn(Collections.singletonList(booking));
+
+        bookingService.getAllByBooker(user1.getId(), State.FUTURE, 0, 10);
+        clock.advance(Duration.ofMillis(500));
+        bookingService.getAllByBooker(user1.getId(), State.FUTURE, 0, 10);
+        verify(bookingRepository, Mockito.times(1))
+                .findByFilter(argThat(filter -> filter.getState() == State.FUTURE
+                        && filter.getNow().equals(LocalDateTime.of(2030, 1, 1, 10, 0, 0))));
+
+        clock.advance(Duration.ofMillis(500));
+        bookingService.getAllByBooker(user1.getId(), State.FUTURE, 0, 10);
+        verify(bookingRepository, Mockito.times(1))
+                .findByFilter(argThat(filter -> filter.getState() == State.FUTURE
+                        && filter.getNow().equals(LocalDateTime.of(2030, 1, 1, 10, 0, 1))));
+    }
+
+    @Test
+    void shouldNotGetAllByOwnerFromCacheAfterBookingCreated() {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findByBookerIdCurrent(anyLong(), any()))
+        when(itemRepository.findWithDetailsById(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(bookingRepository.save(any(Booking.class)))
+                .thenReturn(booking);
+        when(bookingRepository.findByFilter(any()))
+                .thenReturn(Collections.emptyList())
+                .thenReturn(Collections.singletonList(booking));
+
+        assertTrue(bookingService.getAllByOwner(user1.getId(), State.WAITING, 0, 10).isEmpty());
+        bookingService.addBooking(user2.getId(), BookingMapper.toBookingDto(booking));
+        assertEquals(1, bookingService.getAllByOwner(user1.getId(), State.WAITING, 0, 10).size());
+    }
+
+    @Test
+    void shouldGetShortByOwnerSeparatelyFromFullListInCache() {
+        when(bookingRepository.findByFilter(any()))
+                .thenReturn(Collections.singletonList(booking));
+        when(bookingRepository.findShortByFilter(any()))
+                .thenReturn(Collections.singletonList(BookingMapper.toBookingShortDto(booking)));
+
+        assertEquals(1, bookingService.getAllByOwner(user1.getId(), State.ALL, 0, 10).size());
+        List<BookingShortDto> response = bookingService.getShortByOwner(user1.getId(), State.ALL, 0, 10);
+        assertEquals(1, response.size());
+        assertEquals(item.getName(), response.get(0).getItem().getName());
+        verify(bookingRepository, Mockito.times(1))
+                .findShortByFilter(argThat(filter -> filter.getRole() == BookingFilter.Role.OWNER));
+    }
+
+    @Test
+    void shouldGetShortByBookerWithNextCursor() {
+        when(bookingRepository.findShortByFilter(any()))
+                .thenReturn(Collections.singletonList(BookingMapper.toBookingShortDto(booking)));
+
+        CursorPage<BookingShortDto> page = bookingService.getShortByBooker(user1.getId(), State.ALL, null, 1);
+        assertEquals(1, page.getContent().size());
+        assertEquals(Cursor.encode(booking.getStart(), booking.getId()), page.getNextCursor());
+    }
+
+    @Test
+    void shouldGetAllByBookerWhenBookerCurrentState() {
+        when(bookingRepository.findByFilter(any()))
                 .thenReturn(Collections.singletonList(booking));
 
         List<BookingOutputDto> response = bookingService.getAllByBooker(user1.getId(), State.CURRENT, 0, 10);
         assertEquals(booking.getItem().getName(), response.get(0).getItem().getName());
         verify(bookingRepository, Mockito.times(1))
-                .findByBookerIdCurrent(anyLong(), any());
+                .findByFilter(any());
     }
 
     @Test
     void shouldGetAllByBookerWhenBookerPastState() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findByBookerIdPast(anyLong(), any()))
+        when(bookingRepository.findByFilter(any()))
                 .thenReturn(Collections.singletonList(booking));
 
         List<BookingOutputDto> response = bookingService.getAllByBooker(user1.getId(), State.PAST, 0, 10);
         assertEquals(booking.getItem().getName(), response.get(0).getItem().getName());
         verify(bookingRepository, Mockito.times(1))
-                .findByBookerIdPast(anyLong(), any());
+                .findByFilter(any());
     }
 
     @Test
     void shouldGetAllByBookerWhenBookerFutureState() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findByBookerAndStartIsAfter(any(User.class), any(), any()))
+        when(bookingRepository.findByFilter(any()))
                 .thenReturn(Collections.singletonList(booking));
 
         List<BookingOutputDto> response = bookingService.getAllByBooker(user1.getId(), State.FUTURE, 0, 10);
         assertEquals(booking.getItem().getName(), response.get(0).getItem().getName());
         verify(bookingRepository, Mockito.times(1))
-                .findByBookerAndStartIsAfter(any(User.class), any(), any());
+                .findByFilter(any());
     }
 
     @Test
     void shouldGetAllByBookerWhenBookerWaitingStatus() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findByBookerAndStatus(any(User.class), any(), any()))
+        when(bookingRepository.findByFilter(any()))
                 .thenReturn(Collections.singletonList(booking));
 
         List<BookingOutputDto> response = bookingService.getAllByBooker(user1.getId(), State.WAITING, 0, 10);
         assertEquals(booking.getItem().getName(), response.get(0).getItem().getName());
         verify(bookingRepository, Mockito.times(1))
-                .findByBookerAndStatus(any(User.class), any(), any());
+                .findByFilter(any());
     }
 
     @Test
     void shouldGetAllByBookerWhenBookerRejectedStatus() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findByBookerAndStatus(any(User.class), any(), any()))
+        when(bookingRepository.findByFilter(any()))
                 .thenReturn(Collections.singletonList(booking));
 
         List<BookingOutputDto> response = bookingService.getAllByBooker(user1.getId(), State.REJECTED, 0, 10);
         assertEquals(booking.getItem().getName(), response.get(0).getItem().getName());
 
         verify(bookingRepository, Mockito.times(1))
-                .findByBookerAndStatus(any(User.class), any(), any());
+                .findByFilter(any());
     }
 
     @Test
     void shouldNotGetAllByBookerAndThrowExceptionWhenBookerNotFound() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        doThrow(NotFoundException.class)
+                .when(userExistenceCache).check(anyLong());
 
         assertThrows(NotFoundException.class,
                 () -> bookingService.getAllByBooker(user1.getId(), State.ALL, 0, 10));
@@ -346,88 +681,92 @@ public class BookingServiceImplTest {
 
     @Test
     void shouldGetAllByOwnerWhenBookerAllState() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findByItemOwner(any(User.class), any()))
+        when(bookingRepository.findByFilter(any()))
                 .thenReturn(Collections.singletonList(booking));
 
         List<BookingOutputDto> response = bookingService.getAllByOwner(user1.getId(), State.ALL, 0, 10);
         assertEquals(booking.getItem().getName(), response.get(0).getItem().getName());
         verify(bookingRepository, Mockito.times(1))
-                .findByItemOwner(any(User.class), any());
+                .findByFilter(any());
     }
 
     @Test
     void shouldGetAllByOwnerWhenBookerCurrentState() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findByItemOwnerIdCurrent(anyLong(), any()))
+        when(bookingRepository.findByFilter(any()))
                 .thenReturn(Collections.singletonList(booking));
 
         List<BookingOutputDto> response = bookingService.getAllByOwner(user1.getId(), State.CURRENT, 0, 10);
         assertEquals(booking.getItem().getName(), response.get(0).getItem().getName());
         verify(bookingRepository, Mockito.times(1))
-                .findByItemOwnerIdCurrent(anyLong(), any());
+                .findByFilter(any());
     }
 
     @Test
     void shouldGetAllByOwnerWhenBookerPastState() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findByItemOwnerIdPast(anyLong(), any()))
+        when(bookingRepository.findByFilter(any()))
                 .thenReturn(Collections.singletonList(booking));
 
         List<BookingOutputDto> response = bookingService.getAllByOwner(user1.getId(), State.PAST, 0, 10);
         assertEquals(booking.getItem().getName(), response.get(0).getItem().getName());
         verify(bookingRepository, Mockito.times(1))
-                .findByItemOwnerIdPast(anyLong(), any());
+                .findByFilter(any());
     }
 
     @Test
     void shouldGetAllByOwnerWhenBookerFutureState() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findByItemOwnerAndStartAfter(any(User.class), any(), any()))
+        when(bookingRepository.findByFilter(any()))
                 .thenReturn(Collections.singletonList(booking));
 
         List<BookingOutputDto> response = bookingService.getAllByOwner(user1.getId(), State.FUTURE, 0, 10);
         assertEquals(booking.getItem().getName(), response.get(0).getItem().getName());
         verify(bookingRepository, Mockito.times(1))
-                .findByItemOwnerAndStartAfter(any(User.class), any(), any());
+                .findByFilter(any());
     }
 
     @Test
     void shouldGetAllByOwnerWhenBookerWaitingStatus() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findByItemOwnerAndStatusEquals(any(User.class), any(), any()))
+        when(bookingRepository.findByFilter(any()))
                 .thenReturn(Collections.singletonList(booking));
 
         List<BookingOutputDto> response = bookingService.getAllByOwner(user1.getId(), State.WAITING, 0, 10);
         assertEquals(booking.getItem().getName(), response.get(0).getItem().getName());
         verify(bookingRepository, Mockito.times(1))
-                .findByItemOwnerAndStatusEquals(any(User.class), any(), any());
+                .findByFilter(any());
     }
 
     @Test
     void shouldGetAllByOwnerWhenBookerRejectedStatus() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.findByItemOwnerAndStatusEquals(any(User.class), any(), any()))
+        when(bookingRepository.findByFilter(any()))
                 .thenReturn(Collections.singletonList(booking));
 
         List<BookingOutputDto> response = bookingService.getAllByOwner(user1.getId(), State.REJECTED, 0, 10);
         assertEquals(booking.getItem().getName(), response.get(0).getItem().getName());
         verify(bookingRepository, Mockito.times(1))
-                .findByItemOwnerAndStatusEquals(any(User.class), any(), any());
+                .findByFilter(any());
     }
 
     @Test
     void shouldNotGetAllByOwnerAndThrowExceptionWhenBookerNotFound() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        doThrow(NotFoundException.class)
+                .when(userExistenceCache).check(anyLong());
 
         assertThrows(NotFoundException.class,
                 () -> bookingService.getAllByOwner(user2.getId(), State.ALL, 0, 10));
     }
+
+    private static Booking withStatus(Booking booking, Status status) {
+        return Booking.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(booking.getItem())
+                .booker(booking.getBooker())
+                .status(status)
+                .build();
+    }
+
+    private void runInTransaction() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
 }
@@ -8,11 +8,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.item.controller.ItemController;
 import ru.practicum.item.dto.CommentDto;
 import ru.practicum.item.dto.ItemBookingDto;
 import ru.practicum.item.dto.ItemDto;
+import ru.practicum.item.dto.ItemImportResultDto;
 import ru.practicum.item.mapper.ItemMapper;
 import ru.practicum.item.model.Item;
 import ru.practicum.item.service.ItemServiceImpl;
@@ -21,12 +23,18 @@ import ru.practicum.user.mapper.UserMapper;
 import ru.practicum.user.model.User;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -147,6 +155,23 @@ class ItemControllerTest {
                 .getItemById(anyLong(), anyLong());
     }
 
+    @Test
+    void shouldGetItemsByIds() throws Exception {
+        when(itemService.getItemsByIds(1L, List.of(3L, 1L)))
+                .thenReturn(List.of(itemBookingDto));
+
+        mvc.perform(get("/items")
+                        .param("ids", "3,1")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(header, 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        verify(itemService, Mockito.never())
+                .getItems(anyLong(), anyInt(), anyInt());
+    }
+
     @Test
     void shouldNotGetItemByIdAndThrowExceptionWhenItemNotFound() throws Exception {
         when(itemService.getItemById(anyLong(), anyLong()))
@@ -183,7 +208,7 @@ class ItemControllerTest {
 
     @Test
     void shouldSearchItem() throws Exception {
-        when(itemService.searchItem(anyString(), anyInt(), anyInt()))
+        when(itemService.searchItem(anyString(), any(), any(), anyInt(), anyInt()))
                 .thenReturn(Collections.singletonList(itemDto));
 
         mvc.perform(get("/items/search?text=wand")
@@ -198,7 +223,7 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].requestId").value(1L));
 
         verify(itemService, Mockito.times(1))
-                .searchItem(anyString(), anyInt(), anyInt());
+                .searchItem(anyString(), any(), any(), anyInt(), anyInt());
     }
 
     @Test
@@ -231,4 +256,80 @@ class ItemControllerTest {
         verify(itemService, Mockito.times(1))
                 .createComment(anyLong(), anyLong(), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldImportItemsFromNdjson() throws Exception {
+        List<String> names = answerImport();
+
+        MvcResult result = mvc.perform(post("/items/bulk")
+                        .header(header, 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(itemDto) + "\n"
+                                + objectMapper.writeValueAsString(itemUpd) + "\n")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(importResults()));
+        assertEquals(List.of("Wand", "broken wand"), names);
+    }
+
+    @Test
+    void shouldImportItemsFromJsonArray() throws Exception {
+        List<String> names = answerImport();
+
+        MvcResult result = mvc.perform(post("/items/bulk")
+                        .header(header, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(itemDto, itemUpd)))
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(importResults()));
+        assertEquals(List.of("Wand", "broken wand"), names);
+    }
+
+    @Test
+    void shouldNotImportItemsWhenUserNotFound() throws Exception {
+        doThrow(new NotFoundException("Пользователь id 1  не найден"))
+                .when(itemService).importItems(anyLong(), any(), any());
+
+        MvcResult result = mvc.perform(post("/items/bulk")
+                        .header(header, 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(itemDto))
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> answerImport() {
+        List<String> names = new ArrayList<>();
+        doAnswer(invocation -> {
+            Iterator<ItemDto> items = invocation.getArgument(1);
+            Consumer<ItemImportResultDto> results = invocation.getArgument(2);
+            int line = 0;
+            while (items.hasNext()) {
+                names.add(items.next().getName());
+                results.accept(ItemImportResultDto.builder().line(++line).id((long) line).build());
+            }
+            return null;
+        }).when(itemService).importItems(eq(1L), any(), any());
+        return names;
+    }
+
+    private String importResults() throws Exception {
+        return objectMapper.writeValueAsString(ItemImportResultDto.builder().line(1).id(1L).build()) + "\n"
+                + objectMapper.writeValueAsString(ItemImportResultDto.builder().line(2).id(2L).build()) + "\n";
+    }
+}
@@ -57,4 +57,30 @@ class CommentRepositoryTest {
         assertEquals(1, comments.size());
         assertEquals(comment, comments.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFindAllByItemIdIn() {
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(item1);
+        em.persist(comment);
+
+        List<Comment> comments = commentRepository
+                .findAllByItemIdIn(List.of(item1.getId()));
+        assertEquals(1, comments.size());
+        assertEquals(comment, comments.get(0));
+    }
+
+    @Test
+    void shouldFindAllWithAuthorByItemId() {
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(item1);
+        em.persist(comment);
+
+        List<Comment> comments = commentRepository
+                .findAllWithAuthorByItemId(item1.getId());
+        assertEquals(1, comments.size());
+        assertEquals(user2.getName(), comments.get(0).getAuthor().getName());
+    }
+}
@@ -5,15 +5,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.booking.model.Booking;
+import ru.practicum.booking.model.Status;
 import ru.practicum.item.model.Item;
 import ru.practicum.item.repository.ItemRepository;
 import ru.practicum.request.model.ItemRequest;
 import ru.practicum.user.model.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 class ItemRepositoryTest {
@@ -57,7 +62,7 @@ class ItemRepositoryTest {
 
 
     @Test
-    void shouldSearchItemsByText() {
+    void shouldSearchAvailableItems() {
         em.persist(user1);
         em.persist(user2);
         em.persist(itemRequest);
@@ -65,13 +70,105 @@ class ItemRepositoryTest {
         em.persist(item2);
 
         List<Item> items = itemRepository
-                .searchItemsByText("wand", Pageable.ofSize(2));
+                .searchAvailableItems(List.of("wand"), null, null, Pageable.ofSize(2));
         assertEquals(2, items.size());
         assertEquals(item1.getId(), items.get(0).getId());
         assertEquals(item2.getId(), items.get(1).getId());
 
     }
 
+    @Test
+    void shouldSearchAvailableItemsExcludingUnavailable() {
+        item2.setAvailable(Boolean.FALSE);
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(itemRequest);
+        em.persist(item1);
+        em.persist(item2);
+
+        List<Item> items = itemRepository
+                .searchAvailableItems(List.of("broken"), null, null, Pageable.ofSize(10));
+        assertTrue(items.isEmpty());
+    }
+
+    @Test
+    void shouldSearchAvailableItemsByAllTermsRankedByName() {
+        Item item3 = Item.builder()
+                .name("Cloak")
+                .description("Invisibility cloak, not a wand")
+                .available(Boolean.TRUE)
+                .owner(user1)
+                .build();
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(itemRequest);
+        em.persist(item1);
+        em.persist(item2);
+        em.persist(item3);
+
+        List<Item> items = itemRepository
+                .searchAvailableItems(List.of("WAND", "cloak"), null, null, Pageable.ofSize(10));
+        assertEquals(1, items.size());
+        assertEquals(item3.getId(), items.get(0).getId());
+
+        items = itemRepository
+                .searchAvailableItems(List.of("broken"), null, null, Pageable.ofSize(10));
+        assertEquals(item2.getId(), items.get(0).getId());
+    }
+
+    @Test
+    void shouldSearchAvailableItemsTreatingWildcardsLiterally() {
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(itemRequest);
+        em.persist(item1);
+        em.persist(item2);
+
+        List<Item> items = itemRepository
+                .searchAvailableItems(List.of("w%d"), null, null, Pageable.ofSize(10));
+        assertTrue(items.isEmpty());
+    }
+
+    @Test
+    void shouldSearchAvailableItemsFreeInWindow() {
+        LocalDateTime start = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime end = start.plusDays(2);
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(itemRequest);
+        em.persist(item1);
+        em.persist(item2);
+        em.persist(Booking.builder()
+                .start(start.minusDays(1))
+                .end(start.plusDays(1))
+                .item(item1)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build());
+        em.persist(Booking.builder()
+                .start(end)
+                .end(end.plusDays(1))
+                .item(item2)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build());
+        em.persist(Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item2)
+                .booker(user2)
+                .status(Status.WAITING)
+                .build());
+
+        List<Item> items = itemRepository
+                .searchAvailableItems(List.of("wand"), start, end, Pageable.ofSize(10));
+        assertEquals(List.of(item2.getId()), items.stream().map(Item::getId).collect(Collectors.toList()));
+
+        items = itemRepository
+                .searchAvailableItems(List.of("wand"), end, end.plusDays(1), Pageable.ofSize(10));
+        assertEquals(List.of(item1.getId()), items.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
     @Test
     void shouldFindAllByRequestId() {
         em.persist(user1);
@@ -86,6 +183,30 @@ class ItemRepositoryTest {
         assertEquals(item1.getId(), items.get(0).getId());
     }
 
+    @Test
+    void shouldFindAllByRequestIdIn() {
+        ItemRequest otherRequest = ItemRequest.builder()
+                .description("Need a cloak")
+                .created(LocalDateTime.now())
+                .requestor(user2)
+                .build();
+        item2.setItemRequest(otherRequest);
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(itemRequest);
+        em.persist(otherRequest);
+        em.persist(item1);
+        em.persist(item2);
+
+        List<Item> items = itemRepository
+                .findAllByRequestIdIn(List.of(itemRequest.getId(), otherRequest.getId()));
+        assertEquals(List.of(item1.getId(), item2.getId()),
+                items.stream().map(Item::getId).collect(Collectors.toList()));
+
+        items = itemRepository.findAllByRequestIdIn(List.of(otherRequest.getId()));
+        assertEquals(List.of(item2.getId()), items.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
     @Test
     void shouldFindAllByOwnerIdOrderByIdAsc() {
         em.persist(user1);
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.item.search;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.ShareItServer;
+import ru.practicum.item.model.Item;
+import ru.practicum.item.repository.ItemRepository;
+import ru.practicum.item.search.ItemSearchIndex;
+import ru.practicum.user.model.User;
+import ru.practicum.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение поиска вещей через SQL (ItemRepository.searchAvailableItems) и через ItemSearchIndex
+ * с догрузкой найденной страницы из БД. Запуск:
+ * mvn -pl server test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath ru.practicum.shareit.item.search.ItemSearchBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemSearchBenchmark {
+
+    @Param({"10000", "100000"})
+    int itemCount;
+
+    // Число различных слов в названиях и описаниях: от него зависит размер словаря и триграмм индекса
+    @Param({"10000", "100000"})
+    int vocabularySize;
+
+    // word - целое слово из словаря, infix - три буквы из середины слова, как в LIKE '%term%'
+    @Param({"word", "infix"})
+    String query;
+
+    ConfigurableApplicationContext context;
+    ItemRepository itemRepository;
+    ItemSearchIndex searchIndex;
+    String[] vocabulary;
+    List<String> terms;
+    PageRequest pageRequest = PageRequest.of(0, 10);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("shareit.search.index.enabled=true")
+                .run();
+        itemRepository = context.getBean(ItemRepository.class);
+        searchIndex = context.getBean(ItemSearchIndex.class);
+
+        User owner = context.getBean(UserRepository.class).save(User.builder()
+                .name("owner")
+                .email("owner@ex.com")
+                .build());
+        Random random = new Random(42);
+        vocabulary = vocabulary(random, vocabularySize);
+        terms = List.of("word".equals(query) ? vocabulary[7] : vocabulary[7].substring(1, 4));
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(Item.builder()
+                    .name(words(random, 2))
+                    .description(words(random, 8))
+                    .available(random.nextInt(10) > 0)
+                    .owner(owner)
+                    .build());
+            if (items.size() == 1000) {
+                itemRepository.saveAll(items);
+                items.clear();
+            }
+        }
+        itemRepository.saveAll(items);
+        searchIndex.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> sqlSearch() {
+        return itemRepository.searchAvailableItems(terms, null, null, pageRequest);
+    }
+
+    @Benchmark
+    public List<Item> indexSearch() {
+        return itemRepository.findAllById(
+                searchIndex.search(terms, pageRequest.getOffset(), pageRequest.getPageSize()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ItemSearchBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    private static String[] vocabulary(Random random, int size) {
+        Set<String> words = new LinkedHashSet<>();
+        while (words.size() < size) {
+            char[] word = new char[4 + random.nextInt(7)];
+            for (int i = 0; i < word.length; i++) {
+                word[i] = (char) ('a' + random.nextInt(26));
+            }
+            words.add(new String(word));
+        }
+        return words.toArray(new String[0]);
+    }
+
+    private String words(Random random, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        return builder.toString();
+    }
+}
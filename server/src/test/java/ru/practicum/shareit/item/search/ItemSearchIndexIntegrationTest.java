@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.item.model.Item;
+import ru.practicum.item.repository.ItemRepository;
+import ru.practicum.item.search.ItemSearchIndex;
+import ru.practicum.pagination.OffsetPageRequest;
+import ru.practicum.user.model.User;
+import ru.practicum.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "shareit.search.index.enabled=true")
+@DirtiesContext
+class ItemSearchIndexIntegrationTest {
+
+    @Autowired
+    ItemSearchIndex searchIndex;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    void shouldFindSameItemsAsDatabase() {
+        User owner = userRepository.save(User.builder()
+                .email("search-owner@ex.com")
+                .name("Owner")
+                .build());
+        Item toothbrush = itemRepository.save(item(owner, "Toothbrush", "Soft bristles"));
+        Item paintbrush = itemRepository.save(item(owner, "Brush for paint", "Flat paintbrush"));
+        itemRepository.save(item(owner, "Comb", "Wooden comb"));
+        searchIndex.rebuild();
+
+        for (List<String> terms : List.of(List.of("brush"), List.of("BRUSH", "paint"), List.of("oth"),
+                List.of("ristle"), List.of("comb", "brush"))) {
+            List<Long> inDatabase = itemRepository.searchAvailableItems(terms, null, null, OffsetPageRequest.of(0, 10))
+                    .stream()
+                    .map(Item::getId)
+                    .collect(Collectors.toList());
+            assertEquals(inDatabase, searchIndex.search(terms, 0, 10), terms.toString());
+        }
+        assertEquals(Set.of(toothbrush.getId(), paintbrush.getId()),
+                Set.copyOf(searchIndex.search(List.of("brush"), 0, 10)));
+    }
+
+    private static Item item(User owner, String name, String description) {
+        return Item.builder()
+                .name(name)
+                .description(description)
+                .available(Boolean.TRUE)
+                .owner(owner)
+                .build();
+    }
+}
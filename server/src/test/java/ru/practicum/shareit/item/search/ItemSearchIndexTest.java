@@ -0,0 +1,164 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.item.model.Item;
+import ru.practicum.item.repository.ItemRepository;
+import ru.practicum.item.repository.ItemTextProjection;
+import ru.practicum.item.search.ItemSearchHit;
+import ru.practicum.item.search.ItemSearchIndex;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    ItemRepository itemRepository;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    ItemSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ItemSearchIndex(itemRepository, meterRegistry, true);
+        when(itemRepository.streamAllAvailable())
+                .thenReturn(Stream.of(
+                        projection(1L, "Wand", "A wand is the object through which a witch channels magic"),
+                        projection(2L, "Broken wand", "The wand is broken"),
+                        projection(3L, "Cloak", "Invisibility cloak, not a wand")));
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void shouldBeEnabledAfterRebuild() {
+        assertTrue(searchIndex.isEnabled());
+        assertEquals(3, searchIndex.size());
+        assertTrue(meterRegistry.get("shareit.search.index.memory").gauge().value() > 0);
+        assertEquals(3, meterRegistry.get("shareit.search.index.items").gauge().value());
+    }
+
+    @Test
+    void shouldNotBeEnabledWhenSwitchedOff() {
+        ItemSearchIndex disabled = new ItemSearchIndex(itemRepository, new SimpleMeterRegistry(), false);
+        disabled.rebuild();
+
+        assertFalse(disabled.isEnabled());
+    }
+
+    @Test
+    void shouldSearchAllTermsRankedByNameMatches() {
+        assertEquals(List.of(1L, 2L, 3L), searchIndex.search(List.of("WAND"), 0, 10));
+        assertEquals(List.of(3L), searchIndex.search(List.of("wand", "cloak"), 0, 10));
+        assertEquals(List.of(2L), searchIndex.search(List.of("broken"), 0, 10));
+    }
+
+    @Test
+    void shouldSearchByWordPrefix() {
+        assertEquals(List.of(3L), searchIndex.search(List.of("invis"), 0, 10));
+    }
+
+    @Test
+    void shouldSearchBySubstringLikeDatabase() {
+        assertEquals(List.of(3L), searchIndex.search(List.of("visib"), 0, 10));
+        assertEquals(List.of(1L, 2L, 3L), searchIndex.search(List.of("and"), 0, 10));
+    }
+
+    @Test
+    void shouldNotSearchTermsWithPunctuationOrShorterThanTrigram() {
+        assertTrue(searchIndex.canSearch(List.of("wand", "Плащ", "2000")));
+        assertFalse(searchIndex.canSearch(List.of("wand", "wi-fi")));
+        assertFalse(searchIndex.canSearch(List.of("wand", "wa")));
+    }
+
+    @Test
+    void shouldTrackMemoryOnUpdates() {
+        double before = meterRegistry.get("shareit.search.index.memory").gauge().value();
+        Item broom = Item.builder()
+                .id(4L)
+                .name("Flying broom")
+                .description("Nimbus 2000")
+                .available(Boolean.TRUE)
+                .build();
+
+        searchIndex.update(broom);
+        assertTrue(meterRegistry.get("shareit.search.index.memory").gauge().value() > before);
+
+        broom.setAvailable(Boolean.FALSE);
+        searchIndex.update(broom);
+        assertEquals(before, meterRegistry.get("shareit.search.index.memory").gauge().value());
+    }
+
+    @Test
+    void shouldReturnRequestedPage() {
+        assertEquals(List.of(2L), searchIndex.search(List.of("wand"), 1, 1));
+        assertTrue(searchIndex.search(List.of("wand"), 3, 1).isEmpty());
+    }
+
+    @Test
+    void shouldReturnPageAfterCursor() {
+        List<ItemSearchHit> firstPage = searchIndex.searchAfter(List.of("wand"), null, null, 2);
+        assertEquals(List.of(1L, 2L), ids(firstPage));
+        assertEquals(2, firstPage.get(1).getRank());
+
+        ItemSearchHit last = firstPage.get(1);
+        List<ItemSearchHit> secondPage = searchIndex.searchAfter(List.of("wand"), last.getRank(), last.getItemId(), 2);
+        assertEquals(List.of(3L), ids(secondPage));
+        assertEquals(1, secondPage.get(0).getRank());
+    }
+
+    @Test
+    void shouldUpdateIndexIncrementally() {
+        searchIndex.update(Item.builder()
+                .id(4L)
+                .name("Flying broom")
+                .description("Nimbus 2000")
+                .available(Boolean.TRUE)
+                .build());
+        searchIndex.update(Item.builder()
+                .id(2L)
+                .name("Broken wand")
+                .description("The wand is broken")
+                .available(Boolean.FALSE)
+                .build());
+
+        assertEquals(List.of(4L), searchIndex.search(List.of("nimbus"), 0, 10));
+        assertTrue(searchIndex.search(List.of("broken"), 0, 10).isEmpty());
+        assertEquals(3, searchIndex.size());
+    }
+
+    private static ItemTextProjection projection(Long id, String name, String description) {
+        return new ItemTextProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+
+    private static List<Long> ids(List<ItemSearchHit> hits) {
+        return hits.stream()
+                .map(ItemSearchHit::getItemId)
+                .collect(Collectors.toList());
+    }
+}
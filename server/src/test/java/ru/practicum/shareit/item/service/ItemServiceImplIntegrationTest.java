@@ -3,20 +3,27 @@ package ru.practicum.shareit.item.service;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.item.dto.ItemBookingDto;
+import ru.practicum.item.dto.ItemDto;
+import ru.practicum.item.dto.ItemImportResultDto;
 import ru.practicum.item.model.Item;
 import ru.practicum.item.repository.ItemRepository;
 import ru.practicum.item.service.ItemServiceImpl;
 import ru.practicum.user.model.User;
 import ru.practicum.user.repository.UserRepository;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
-@SpringBootTest
+@SpringBootTest(properties = "shareit.item.import.batch-size=2")
 @DirtiesContext
 class ItemServiceImplIntegrationTest {
 
@@ -63,4 +70,55 @@ class ItemServiceImplIntegrationTest {
                 () -> assertEquals(item2.getName(), userItems.get(1).getName()));
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldImportItemsInBatches() {
+        User owner = userRepository.save(User.builder()
+                .email("importer@ex.com")
+                .name("Importer")
+                .build());
+        List<ItemDto> items = IntStream.rangeClosed(1, 5)
+                .mapToObj(n -> ItemDto.builder()
+                        .name("Imported " + n)
+                        .description("Imported item " + n)
+                        .available(true)
+                        .build())
+                .collect(Collectors.toList());
+        List<ItemImportResultDto> results = new ArrayList<>();
+
+        itemService.importItems(owner.getId(), items.iterator(), results::add);
+
+        List<Item> saved = itemRepository.findAllByOwnerIdOrderByIdAsc(owner.getId(), Pageable.unpaged());
+        assertEquals(5, saved.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i + 1, results.get(i).getLine());
+            assertNull(results.get(i).getError());
+            assertEquals(saved.get(i).getId(), results.get(i).getId());
+            assertEquals("Imported " + (i + 1), saved.get(i).getName());
+        }
+    }
+
+    @Test
+    void shouldImportValidItemsWhenOneLineTooLong() {
+        User owner = userRepository.save(User.builder()
+                .email("long-importer@ex.com")
+                .name("Importer")
+                .build());
+        List<ItemDto> items = IntStream.rangeClosed(1, 4)
+                .mapToObj(n -> ItemDto.builder()
+                        .name(n == 2 ? "x".repeat(51) : "Imported " + n)
+                        .description("Imported item " + n)
+                        .available(true)
+                        .build())
+                .collect(Collectors.toList());
+        List<ItemImportResultDto> results = new ArrayList<>();
+
+        itemService.importItems(owner.getId(), items.iterator(), results::add);
+
+        List<Item> saved = itemRepository.findAllByOwnerIdOrderByIdAsc(owner.getId(), Pageable.unpaged());
+        assertEquals(List.of("Imported 1", "Imported 3", "Imported 4"),
+                saved.stream().map(Item::getName).collect(Collectors.toList()));
+        assertEquals("Название длиннее 50 символов", results.get(1).getError());
+        assertEquals(saved.get(0).getId(), results.get(0).getId());
+        assertEquals(saved.get(1).getId(), results.get(2).getId());
+    }
+}
@@ -5,33 +5,61 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.booking.dto.BookingDateDto;
+import ru.practicum.booking.index.BookingIntervalIndex;
 import ru.practicum.booking.model.Booking;
+import ru.practicum.booking.model.Status;
 import ru.practicum.booking.repository.BookingRepository;
 import ru.practicum.exception.BadRequestException;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.item.dto.CommentDto;
 import ru.practicum.item.dto.ItemBookingDto;
 import ru.practicum.item.dto.ItemDto;
+import ru.practicum.item.dto.ItemImportResultDto;
 import ru.practicum.item.mapper.CommentMapper;
 import ru.practicum.item.mapper.ItemMapper;
 import ru.practicum.item.model.Comment;
 import ru.practicum.item.model.Item;
 import ru.practicum.item.repository.CommentRepository;
 import ru.practicum.item.repository.ItemRepository;
+import ru.practicum.item.repository.RankedItem;
+import ru.practicum.item.search.ItemSearchIndex;
 import ru.practicum.item.service.ItemServiceImpl;
+import ru.practicum.pagination.Cursor;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.MutableClock;
+import ru.practicum.user.cache.UserExistenceCache;
 import ru.practicum.user.model.User;
 import ru.practicum.user.repository.UserRepository;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,6 +78,24 @@ class ItemServiceImplTest {
     @Mock
     CommentRepository commentRepository;
 
+    @Mock
+    ItemSearchIndex searchIndex;
+
+    @Mock
+    BookingIntervalIndex bookingIndex;
+
+    @Spy
+    MutableClock clock = new MutableClock(Instant.now(), ZoneId.systemDefault());
+
+    @Mock
+    UserExistenceCache userExistenceCache;
+
+    @Mock
+    ItemRequestRepository requestRepository;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
     @InjectMocks
     ItemServiceImpl itemService;
 
@@ -148,8 +194,6 @@ class ItemServiceImplTest {
 
     @Test
     void shouldGetItemById() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
 
@@ -157,6 +201,162 @@ class ItemServiceImplTest {
 
         assertEquals(item.getId(), itemDto.getId());
         assertEquals(item.getName(), itemDto.getName());
+        verify(bookingRepository, Mockito.times(1))
+                .findLastAndNextBookingsByItemId(eq(item.getId()), any(LocalDateTime.class), eq(Status.APPROVED));
+    }
+
+    @Test
+    void shouldGetItemByIdWithoutBookingsWhenUserIsNotOwner() {
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(userExistenceCache.exists(user2.getId()))
+                .thenReturn(true);
+
+        ItemBookingDto itemDto = itemService.getItemById(user2.getId(), item.getId());
+
+        assertEquals(item.getId(), itemDto.getId());
+        assertNull(itemDto.getLastBooking());
+        assertNull(itemDto.getNextBooking());
+        verify(bookingRepository, Mockito.never())
+                .findLastAndNextBookingsByItemId(anyLong(), any(), any());
+    }
+
+    @Test
+    void shouldGetItemsByIdsInRequestedOrderWithBookingsOnlyForOwnItems() {
+        Item item2 = Item.builder()
+                .id(2L)
+                .name("Cloak")
+                .description("Invisibility cloak")
+                .available(Boolean.TRUE)
+                .owner(user2)
+                .build();
+        Booking next = Booking.builder()
+                .id(1L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(item)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build();
+        when(itemRepository.findAllById(List.of(2L, 3L, 1L)))
+                .thenReturn(List.of(item, item2));
+        when(userExistenceCache.exists(user1.getId()))
+                .thenReturn(true);
+        when(commentRepository.findAllByItemIdIn(argThat(ids -> Set.copyOf(ids).equals(Set.of(1L, 2L)))))
+                .thenReturn(Collections.emptyList());
+        when(bookingRepository.findLastBookingsByItemIds(eq(List.of(1L)), any(LocalDateTime.class),
+                eq(Status.APPROVED)))
+                .thenReturn(Collections.emptyList());
+        when(bookingRepository.findNextBookingsByItemIds(eq(List.of(1L)), any(LocalDateTime.class),
+                eq(Status.APPROVED)))
+                .thenReturn(List.of(next));
+
+        List<ItemBookingDto> items = itemService.getItemsByIds(user1.getId(), List.of(2L, 3L, 1L, 2L));
+
+        assertEquals(2, items.size());
+        assertEquals(item2.getId(), items.get(0).getId());
+        assertNull(items.get(0).getLastBooking());
+        assertEquals(item.getId(), items.get(1).getId());
+        assertEquals(next.getId(), items.get(1).getLastBooking().getId());
+        assertNull(items.get(1).getNextBooking());
+    }
+
+    @Test
+    void shouldNotGetItemsByIdsAndThrowExceptionWhenUserNotFound() {
+        when(itemRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(item));
+        when(userExistenceCache.exists(user2.getId()))
+                .thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.getItemsByIds(user2.getId(), List.of(1L)));
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void shouldGetItemByIdWithLastAndNextBookingsWhenUserIsOwner() {
+        Booking last = Booking.builder()
+                .id(1L)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .item(item)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build();
+        Booking next = Booking.builder()
+                .id(2L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(item)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build();
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(bookingRepository.findLastAndNextBookingsByItemId(anyLong(), any(LocalDateTime.class), eq(Status.APPROVED)))
+                .thenReturn(List.of(last, next));
+
+        ItemBookingDto itemDto = itemService.getItemById(user1.getId(), item.getId());
+
+        assertEquals(last.getId(), itemDto.getLastBooking().getId());
+        assertEquals(next.getId(), itemDto.getNextBooking().getId());
+    }
+
+    @Test
+    void shouldGetItemByIdWithNextBookingBecomingLastWhenClockAdvances() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Booking earlier = Booking.builder()
+                .id(1L)
+                .start(now.minusHours(4))
+                .end(now.minusHours(3))
+                .item(item)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build();
+        Booking booking = Booking.builder()
+                .id(2L)
+                .start(now.minusHours(1))
+                .end(now.plusHours(1))
+                .item(item)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build();
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(bookingRepository.findLastAndNextBookingsByItemId(anyLong(), any(LocalDateTime.class), eq(Status.APPROVED)))
+                .thenReturn(List.of(earlier, booking))
+                .thenReturn(List.of(booking));
+
+        ItemBookingDto itemDto = itemService.getItemById(user1.getId(), item.getId());
+        assertEquals(earlier.getId(), itemDto.getLastBooking().getId());
+        assertEquals(booking.getId(), itemDto.getNextBooking().getId());
+
+        clock.advance(Duration.ofHours(2));
+        itemDto = itemService.getItemById(user1.getId(), item.getId());
+        assertEquals(booking.getId(), itemDto.getLastBooking().getId());
+        assertNull(itemDto.getNextBooking());
+        verify(bookingRepository, Mockito.times(1))
+                .findLastAndNextBookingsByItemId(item.getId(), now.plusHours(2), Status.APPROVED);
+    }
+
+    @Test
+    void shouldGetItemByIdWithBookingsFromIndexWhenEnabled() {
+        BookingDateDto last = BookingDateDto.builder().id(1L).bookerId(user2.getId()).build();
+        BookingDateDto next = BookingDateDto.builder().id(2L).bookerId(user2.getId()).build();
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(bookingIndex.isEnabled())
+                .thenReturn(true);
+        when(bookingIndex.getLastBooking(eq(item.getId()), any(LocalDateTime.class)))
+                .thenReturn(last);
+        when(bookingIndex.getNextBooking(eq(item.getId()), any(LocalDateTime.class)))
+                .thenReturn(next);
+
+        ItemBookingDto itemDto = itemService.getItemById(user1.getId(), item.getId());
+
+        assertEquals(last, itemDto.getLastBooking());
+        assertEquals(next, itemDto.getNextBooking());
+        verify(bookingRepository, Mockito.never())
+                .findLastAndNextBookingsByItemId(anyLong(), any(), any());
     }
 
     @Test
@@ -172,11 +372,11 @@ class ItemServiceImplTest {
     void shouldNotGetItemByIdAndThrowExceptionWhenUserNotFound() {
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userExistenceCache.exists(anyLong()))
+                .thenReturn(false);
 
         assertThrows(NotFoundException.class,
-                () -> itemService.getItemById(user1.getId(), item.getId()));
+                () -> itemService.getItemById(user2.getId(), item.getId()));
     }
 
     @Test
@@ -186,27 +386,185 @@ class ItemServiceImplTest {
 
         List<ItemBookingDto> response = itemService.getItems(user1.getId(), 0, 10);
         assertEquals(item.getName(), response.get(0).getName());
+        verify(commentRepository, Mockito.times(1))
+                .findAllByItemIdIn(List.of(item.getId()));
+        verify(bookingRepository, Mockito.times(1))
+                .findLastBookingsByItemIds(eq(List.of(item.getId())), any(LocalDateTime.class), eq(Status.APPROVED));
+        verify(bookingRepository, Mockito.times(1))
+                .findNextBookingsByItemIds(eq(List.of(item.getId())), any(LocalDateTime.class), eq(Status.APPROVED));
+    }
+
+    @Test
+    void shouldGetItemsWithLastAndNextBookings() {
+        Booking last = Booking.builder()
+                .id(1L)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .item(item)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build();
+        Booking next = Booking.builder()
+                .id(2L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(item)
+                .booker(user2)
+                .status(Status.APPROVED)
+                .build();
+        when(itemRepository.findAllByOwnerIdOrderByIdAsc(any(Long.class), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(item));
+        when(bookingRepository.findLastBookingsByItemIds(anyList(), any(LocalDateTime.class), eq(Status.APPROVED)))
+                .thenReturn(List.of(last));
+        when(bookingRepository.findNextBookingsByItemIds(anyList(), any(LocalDateTime.class), eq(Status.APPROVED)))
+                .thenReturn(List.of(next));
+
+        List<ItemBookingDto> response = itemService.getItems(user1.getId(), 0, 10);
+        assertEquals(last.getId(), response.get(0).getLastBooking().getId());
+        assertEquals(next.getId(), response.get(0).getNextBooking().getId());
+        assertTrue(response.get(0).getComments().isEmpty());
+    }
+
+    @Test
+    void shouldGetItemsAfterCursor() {
+        when(itemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(eq(user1.getId()), eq(5L), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(item));
+
+        CursorPage<ItemBookingDto> page = itemService.getItems(user1.getId(), Cursor.encode(5L), 1);
+        assertEquals(item.getId(), page.getContent().get(0).getId());
+        assertEquals(Cursor.encode(item.getId()), page.getNextCursor());
+    }
+
+    @Test
+    void shouldNotGetItemsAndThrowExceptionWhenCursorIsInvalid() {
+        assertThrows(BadRequestException.class, () -> itemService.getItems(user1.getId(), "???", 10));
+    }
+
+    @Test
+    void shouldSearchItemAfterCursor() {
+        when(itemRepository.searchAvailableItemsAfter(List.of("wand"), null, null, 2, 7L, 10))
+                .thenReturn(List.of(new RankedItem(item, 2)));
+
+        CursorPage<ItemDto> page = itemService.searchItem("wand", null, null, Cursor.encode(2, 7L), 10);
+        assertEquals(List.of(ItemMapper.toItemDto(item)), page.getContent());
+        assertNull(page.getNextCursor());
     }
 
     @Test
     void shouldSearchItemWhenTextIsNotBlank() {
-        when(itemRepository.searchItemsByText(anyString(), any()))
+        when(itemRepository.searchAvailableItems(anyList(), any(), any(), any()))
                 .thenReturn(Collections.singletonList(item));
 
-        List<ItemDto> itemDto = itemService.searchItem("wand", 0, 10);
+        List<ItemDto> itemDto = itemService.searchItem("wand", null, null, 0, 10);
         assertEquals(1, itemDto.size());
         assertEquals(ItemMapper.toItemDto(item), itemDto.get(0));
     }
 
     @Test
-    void shouldSearchItemEmptyListWhenTextIsBlank() {
-        when(itemRepository.searchItemsByText(anyString(), any()))
+    void shouldSearchItemEmptyListWhenNothingFound() {
+        when(itemRepository.searchAvailableItems(anyList(), any(), any(), any()))
                 .thenReturn(Collections.emptyList());
 
-        List<ItemDto> itemDto = itemService.searchItem("wand", 0, 10);
+        List<ItemDto> itemDto = itemService.searchItem("wand", null, null, 0, 10);
         assertTrue(itemDto.isEmpty());
     }
 
+    @Test
+    void shouldSearchItemEmptyListWhenTextIsBlank() {
+        List<ItemDto> itemDto = itemService.searchItem("   ", null, null, 0, 10);
+        assertTrue(itemDto.isEmpty());
+        verify(itemRepository, Mockito.never())
+                .searchAvailableItems(anyList(), any(), any(), any());
+    }
+
+    @Test
+    void shouldSearchItemInIndexWhenEnabled() {
+        Item item2 = Item.builder()
+                .id(2L)
+                .name("Broken wand")
+                .description("the wand is broken")
+                .available(Boolean.TRUE)
+                .owner(user1)
+                .build();
+        when(searchIndex.isEnabled())
+                .thenReturn(true);
+        when(searchIndex.canSearch(List.of("wand")))
+                .thenReturn(true);
+        when(searchIndex.search(List.of("wand"), 0, 10))
+                .thenReturn(List.of(2L, 1L));
+        when(itemRepository.findAllById(List.of(2L, 1L)))
+                .thenReturn(List.of(item, item2));
+
+        List<ItemDto> itemDto = itemService.searchItem("wand", null, null, 0, 10);
+        assertEquals(2, itemDto.size());
+        assertEquals(item2.getId(), itemDto.get(0).getId());
+        assertEquals(item.getId(), itemDto.get(1).getId());
+        verify(itemRepository, Mockito.never())
+                .searchAvailableItems(anyList(), any(), any(), any());
+    }
+
+    @Test
+    void shouldSearchItemFreeInWindowInDbWhenIndexEnabled() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+        when(searchIndex.isEnabled())
+                .thenReturn(true);
+        when(itemRepository.searchAvailableItems(eq(List.of("wand")), eq(start), eq(end), any()))
+                .thenReturn(Collections.singletonList(item));
+
+        List<ItemDto> itemDto = itemService.searchItem("wand", start, end, 0, 10);
+        assertEquals(List.of(ItemMapper.toItemDto(item)), itemDto);
+        verify(searchIndex, Mockito.never())
+                .search(anyList(), anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldSearchItemWithPunctuationInDbWhenIndexEnabled() {
+        when(searchIndex.isEnabled())
+                .thenReturn(true);
+        when(searchIndex.canSearch(List.of("wi-fi")))
+                .thenReturn(false);
+        when(itemRepository.searchAvailableItems(eq(List.of("wi-fi")), isNull(), isNull(), any()))
+                .thenReturn(Collections.singletonList(item));
+
+        List<ItemDto> itemDto = itemService.searchItem("wi-fi", null, null, 0, 10);
+        assertEquals(List.of(ItemMapper.toItemDto(item)), itemDto);
+        verify(searchIndex, Mockito.never())
+                .search(anyList(), anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldNotSearchItemAndThrowExceptionWhenWindowIsIncomplete() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        assertThrows(BadRequestException.class, () -> itemService.searchItem("wand", start, null, 0, 10));
+        assertThrows(BadRequestException.class, () -> itemService.searchItem("wand", start, start, 0, 10));
+        verify(itemRepository, Mockito.never())
+                .searchAvailableItems(anyList(), any(), any(), any());
+    }
+
+    @Test
+    void shouldUpdateIndexWhenItemCreated() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(user1));
+        when(itemRepository.save(any(Item.class)))
+                .thenReturn(item);
+
+        itemService.createItem(user1.getId(), ItemMapper.toItemDto(item));
+
+        verify(searchIndex, Mockito.times(1))
+                .update(item);
+    }
+
+    @Test
+    void shouldSearchItemBySeparateTerms() {
+        when(itemRepository.searchAvailableItems(anyList(), any(), any(), any()))
+                .thenReturn(Collections.singletonList(item));
+
+        itemService.searchItem(" magic  wand magic ", null, null, 0, 10);
+        verify(itemRepository, Mockito.times(1))
+                .searchAvailableItems(eq(List.of("magic", "wand")), any(), any(), any());
+    }
+
     @Test
     void shouldCreateComment() {
         Booking booking = Booking.builder()
@@ -251,4 +609,137 @@ class ItemServiceImplTest {
         assertThrows(BadRequestException.class,
                 () -> itemService.createComment(item.getId(), user2.getId(), new CommentDto()));
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldImportItemsInBatchesAndReportEachLine() {
+        ReflectionTestUtils.setField(itemService, "importBatchSize", 2);
+        runInTransaction();
+        when(userRepository.getReferenceById(1L)).thenReturn(user1);
+        when(requestRepository.findAllById(Set.of(5L))).thenReturn(List.of());
+        long[] nextId = {100};
+        when(itemRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            items.forEach(saved -> saved.setId(nextId[0]++));
+            return items;
+        });
+        List<ItemImportResultDto> results = new ArrayList<>();
+
+        itemService.importItems(1L, List.of(
+                importedItem("Wand", null),
+                importedItem(" ", null),
+                importedItem("Cloak", 5L),
+                importedItem("Stone", null)).iterator(), results::add);
+
+        assertEquals(List.of(
+                ItemImportResultDto.builder().line(1).id(100L).build(),
+                ItemImportResultDto.builder().line(2).error("Введите название").build(),
+                ItemImportResultDto.builder().line(3).error("Запрос id 5 не найден").build(),
+                ItemImportResultDto.builder().line(4).id(101L).build()), results);
+        verify(itemRepository, times(2)).saveAll(any());
+        verify(searchIndex, times(2)).update(any(Item.class));
+    }
+
+    @Test
+    void shouldSaveReadItemsAndStopImportWhenStreamBroken() {
+        runInTransaction();
+        when(userRepository.getReferenceById(1L)).thenReturn(user1);
+        when(itemRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        Iterator<ItemDto> items = new Iterator<>() {
+            boolean read;
+
+            @Override
+            public boolean hasNext() {
+                if (read) {
+                    throw new IllegalStateException("Unexpected end-of-input");
+                }
+                return true;
+            }
+
+            @Override
+            public ItemDto next() {
+                read = true;
+                return importedItem("Wand", null);
+            }
+        };
+        List<ItemImportResultDto> results = new ArrayList<>();
+
+        itemService.importItems(1L, items, results::add);
+
+        assertEquals(2, results.size());
+        assertNull(results.get(0).getError());
+        assertEquals(ItemImportResultDto.builder().line(2).error("Некорректный JSON, импорт остановлен").build(),
+                results.get(1));
+    }
+
+    @Test
+    void shouldReportEveryLineWhenBatchNotSaved() {
+        runInTransaction();
+        when(userRepository.getReferenceById(1L)).thenReturn(user1);
+        when(itemRepository.saveAll(any())).thenThrow(new DataIntegrityViolationException("fk_items_owner"));
+        List<ItemImportResultDto> results = new ArrayList<>();
+
+        itemService.importItems(1L, List.of(importedItem("Wand", null)).iterator(), results::add);
+
+        assertEquals(List.of(ItemImportResultDto.builder().line(1).error("Не удалось сохранить вещь").build()),
+                results);
+        verify(searchIndex, never()).update(any(Item.class));
+    }
+
+    @Test
+    void shouldSaveLinesOneByOneWhenBatchNotSaved() {
+        ReflectionTestUtils.setField(itemService, "importBatchSize", 4);
+        runInTransaction();
+        when(userRepository.getReferenceById(1L)).thenReturn(user1);
+        long[] nextId = {100};
+        when(itemRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            if (items.stream().anyMatch(saved -> saved.getName().equals("Broken"))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            items.forEach(saved -> saved.setId(nextId[0]++));
+            return items;
+        });
+        List<ItemImportResultDto> results = new ArrayList<>();
+
+        itemService.importItems(1L, List.of(
+                importedItem("Wand", null),
+                importedItem("Broken", null),
+                importedItem("x".repeat(51), null),
+                importedItem("Stone", null)).iterator(), results::add);
+
+        assertEquals(List.of(
+                ItemImportResultDto.builder().line(1).id(100L).build(),
+                ItemImportResultDto.builder().line(2).error("Не удалось сохранить вещь").build(),
+                ItemImportResultDto.builder().line(3).error("Название длиннее 50 символов").build(),
+                ItemImportResultDto.builder().line(4).id(101L).build()), results);
+        verify(itemRepository, times(4)).saveAll(any());
+        verify(searchIndex, times(2)).update(any(Item.class));
+    }
+
+    @Test
+    void shouldNotImportItemsWhenUserNotFound() {
+        doThrow(NotFoundException.class).when(userExistenceCache).check(1L);
+
+        assertThrows(NotFoundException.class, () -> itemService.importItems(1L,
+                List.of(importedItem("Wand", null)).iterator(), result -> { }));
+        verifyNoInteractions(itemRepository, transactionTemplate);
+    }
+
+    private void runInTransaction() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private ItemDto importedItem(String name, Long requestId) {
+        return ItemDto.builder()
+                .id(42L)
+                .name(name)
+                .description(name)
+                .available(true)
+                .requestId(requestId)
+                .build();
+    }
+}
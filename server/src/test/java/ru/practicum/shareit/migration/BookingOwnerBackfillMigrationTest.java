@@ -0,0 +1,70 @@
+package ru.practicum.shareit.migration;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Проверяет на встроенном PostgreSQL заполнение bookings.owner_id для уже существующих бронирований
+ * и каскадное обновление при смене владельца вещи.
+ */
+class BookingOwnerBackfillMigrationTest {
+
+    @Test
+    void shouldBackfillOwnerIdInBatchesAndKeepItConsistent() throws Exception {
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+            DataSource dataSource = postgres.getPostgresDatabase();
+            flyway(dataSource, "6").migrate();
+
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("insert into users (name, email) " +
+                        "select 'user' || n, 'user' || n || '@mail.com' from generate_series(1, 100) n");
+                statement.execute("insert into items (name, description, available, owner_id) " +
+                        "select 'item' || n, 'description' || n, true, n % 100 + 1 from generate_series(1, 1000) n");
+                statement.execute("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                        "select now() + n * interval '1 hour', now() + n * interval '1 hour' + interval '30 minutes', " +
+                        "n % 1000 + 1, n % 100 + 1, 'WAITING' from generate_series(1, 25000) n");
+            }
+
+            flyway(dataSource, "latest").migrate();
+
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                assertEquals(0, count(statement, "select count(*) from bookings b join items i " +
+                        "on i.item_id = b.item_id where b.owner_id is distinct from i.owner_id"));
+
+                statement.execute("update items set owner_id = 1 where item_id = 2");
+                assertEquals(25, count(statement, "select count(*) from bookings where item_id = 2 and owner_id = 1"));
+
+                assertThrows(SQLException.class, () -> statement.execute("insert into bookings " +
+                        "(start_date, end_date, item_id, booker_id, status, owner_id) " +
+                        "values (now(), now() + interval '1 hour', 2, 3, 'WAITING', 5)"));
+            }
+        }
+    }
+
+    private static Flyway flyway(DataSource dataSource, String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .target(target)
+                .load();
+    }
+
+    private static long count(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
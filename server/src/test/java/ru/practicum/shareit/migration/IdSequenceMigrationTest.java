@@ -0,0 +1,68 @@
+package ru.practicum.shareit.migration;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверяет на встроенном PostgreSQL перевод первичных ключей на последовательности: нумерация продолжается
+ * после существующих строк, шаг берётся из плейсхолдера, а вставки без id берут значения из той же последовательности.
+ */
+class IdSequenceMigrationTest {
+
+    @Test
+    void shouldContinueIdsFromSequenceWithConfiguredIncrement() throws Exception {
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+            DataSource dataSource = postgres.getPostgresDatabase();
+            flyway(dataSource, "9").migrate();
+
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("insert into users (name, email, email_lower) " +
+                        "select 'user' || n, 'user' || n || '@mail.com', 'user' || n || '@mail.com' " +
+                        "from generate_series(1, 3) n");
+            }
+
+            flyway(dataSource, "latest").migrate();
+
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                assertEquals(20, count(statement, "select increment from information_schema.sequences " +
+                        "where sequence_name = 'users_seq'"));
+                assertEquals(20, count(statement, "select increment from information_schema.sequences " +
+                        "where sequence_name = 'comments_seq'"));
+                assertEquals(4, count(statement, "insert into users (name, email, email_lower) " +
+                        "values ('user4', 'user4@mail.com', 'user4@mail.com') returning user_id"));
+                assertEquals(24, count(statement, "select nextval('users_seq')"));
+                assertEquals(44, count(statement, "insert into users (name, email, email_lower) " +
+                        "values ('user5', 'user5@mail.com', 'user5@mail.com') returning user_id"));
+                assertEquals(1, count(statement, "select nextval('items_seq')"));
+            }
+        }
+    }
+
+    private static Flyway flyway(DataSource dataSource, String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .placeholders(Map.of("id-allocation-size", "20"))
+                .target(target)
+                .load();
+    }
+
+    private static long count(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package ru.practicum.shareit.migration;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет на встроенном PostgreSQL, что миграции применяются и частые запросы используют индексы.
+ */
+class MigrationIndexUsageTest {
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    @BeforeAll
+    static void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .load()
+                .migrate();
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("insert into users (user_id, name, email, email_lower) " +
+                    "select n, 'user' || n, 'User' || n || '@mail.com', 'user' || n || '@mail.com' " +
+                    "from generate_series(1, 1000) n");
+            statement.execute("insert into requests (request_id, description, create_date, requestor_id) " +
+                    "select n, 'request' || n, now() - n * interval '1 minute', n % 1000 + 1 " +
+                    "from generate_series(1, 5000) n");
+            statement.execute("insert into items (item_id, name, description, available, owner_id, request_id) " +
+                    "select n, 'item' || n, 'description' || n, n % 2 = 0, n % 1000 + 1, " +
+                    "case when n % 10 = 0 then n / 10 end from generate_series(1, 10000) n");
+            statement.execute("insert into bookings " +
+                    "(booking_id, start_date, end_date, item_id, booker_id, status, owner_id) " +
+                    "select n, now() + (n / 10000 * 2 - 5) * interval '1 day' + n % 100 * interval '1 minute', " +
+                    "now() + (n / 10000 * 2 - 4) * interval '1 day', " +
+                    "n % 10000 + 1, n % 1000 + 1, case when n % 3 = 0 then 'WAITING' else 'APPROVED' end, " +
+                    "(n % 10000 + 1) % 1000 + 1 " +
+                    "from generate_series(1, 50000) n");
+            statement.execute("insert into comments (comment_id, text, item_id, author_id, created) " +
+                    "select n, 'comment' || n, n % 10000 + 1, n % 1000 + 1, now() from generate_series(1, 20000) n");
+            statement.execute("analyze");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void shouldUseIndexForLastAndNextBookings() throws SQLException {
+        assertIndexScan("select * from bookings where item_id in (1, 2, 3) and status = 'APPROVED' " +
+                "and end_date < now() order by end_date desc", "bookings", "ix_bookings_item_status_end");
+    }
+
+    @Test
+    void shouldUseIndexForBookerBookings() throws SQLException {
+        assertIndexScan("select * from bookings where booker_id = 1 " +
+                "order by start_date desc, booking_id desc limit 10", "bookings", "ix_bookings_booker_start");
+    }
+
+    @Test
+    void shouldUseIndexForOwnerBookings() throws SQLException {
+        assertIndexScan("select * from bookings where owner_id = 1 " +
+                "order by start_date desc, booking_id desc limit 10", "bookings", "ix_bookings_owner_start");
+    }
+
+    @Test
+    void shouldUseIndexForBookerBookingsByStatus() throws SQLException {
+        assertIndexScan("select * from bookings where booker_id = 1 and status = 'WAITING' " +
+                "order by start_date desc, booking_id desc limit 10", "bookings", "ix_bookings_booker_status_start");
+    }
+
+    @Test
+    void shouldUseIndexForOwnerBookingsByStatus() throws SQLException {
+        assertIndexScan("select * from bookings where owner_id = 1 and status = 'WAITING' " +
+                "order by start_date desc, booking_id desc limit 10", "bookings", "ix_bookings_owner_status_start");
+    }
+
+    @Test
+    void shouldUseIndexForOwnerItems() throws SQLException {
+        assertIndexScan("select * from items where owner_id = 1 order by item_id limit 10",
+                "items", "ix_items_owner");
+    }
+
+    @Test
+    void shouldUseIndexForRequestItems() throws SQLException {
+        assertIndexScan("select * from items where request_id = 1", "items", "ix_items_request");
+    }
+
+    @Test
+    void shouldUseIndexForItemComments() throws SQLException {
+        assertIndexScan("select * from comments where item_id in (1, 2, 3)", "comments", "ix_comments_item");
+    }
+
+    @Test
+    void shouldUseIndexForEmailUniqueness() throws SQLException {
+        assertIndexScan("select * from users where email_lower = 'user500@mail.com'",
+                "users", "uq_user_email_lower");
+    }
+
+    @Test
+    void shouldUseIndexForOwnRequests() throws SQLException {
+        assertIndexScan("select * from requests where requestor_id = 1 order by create_date desc",
+                "requests", "ix_requests_requestor_created");
+    }
+
+    @Test
+    void shouldUseIndexForOtherUsersRequests() throws SQLException {
+        assertIndexScan("select * from requests where requestor_id <> 1 " +
+                "order by create_date desc, request_id desc limit 10", "requests", "ix_requests_created");
+    }
+
+    @Test
+    void shouldSeekIndexForOtherUsersRequestsAfterCursor() throws SQLException {
+        String plan = explain("select * from requests where requestor_id <> 1 " +
+                "and create_date <= now() - interval '2500 minutes' " +
+                "and (create_date < now() - interval '2500 minutes' " +
+                "or (create_date = now() - interval '2500 minutes' and request_id < 2500)) " +
+                "order by create_date desc, request_id desc limit 10");
+        assertTrue(plan.contains("Index Scan using ix_requests_created"), plan);
+        assertTrue(plan.contains("Index Cond: (create_date <="), plan);
+    }
+
+    private static void assertIndexScan(String sql, String table, String index) throws SQLException {
+        String plan = explain(sql);
+        assertFalse(plan.contains("Seq Scan on " + table), plan);
+        assertTrue(plan.contains(index), plan);
+    }
+
+    private static String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("explain " + sql)) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
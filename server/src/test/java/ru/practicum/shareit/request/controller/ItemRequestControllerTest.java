@@ -97,6 +97,23 @@ public class ItemRequestControllerTest {
                 .getItemRequests(anyLong());
     }
 
+    @Test
+    void shouldGetItemRequestsPage() throws Exception {
+        when(itemRequestService.getItemRequests(1L, 10, 5))
+                .thenReturn(Collections.singletonList(response));
+
+        mvc.perform(get("/requests")
+                        .header(header, 1L)
+                        .param("from", "10")
+                        .param("size", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(Collections.singletonList(response))));
+
+        verify(itemRequestService, Mockito.never())
+                .getItemRequests(anyLong());
+    }
+
     @Test
     void shouldGetEmptyItemRequestsListWhenRequestNotExists() throws Exception {
         when(itemRequestService.getItemRequests(anyLong()))
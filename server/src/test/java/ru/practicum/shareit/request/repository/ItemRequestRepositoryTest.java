@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.item.model.Item;
 import ru.practicum.request.model.ItemRequest;
@@ -12,6 +13,7 @@ import ru.practicum.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -55,20 +57,82 @@ class ItemRequestRepositoryTest {
         em.persist(itemRequest);
         em.persist(item);
 
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequestorId(user2.getId());
+        List<ItemRequest> itemRequests = itemRequestRepository
+                .findAllByRequestorIdOrderByCreatedDescIdDesc(user2.getId());
         assertEquals(1, itemRequests.size());
         assertEquals(itemRequest.getId(), itemRequests.get(0).getId());
     }
 
     @Test
-    void shouldFindAllPageable() {
+    void shouldFindAllByRequestorIdNewestFirst() {
+        ItemRequest older = ItemRequest.builder()
+                .description("Need an invisibility cloak")
+                .created(itemRequest.getCreated().minusDays(1))
+                .requestor(user2)
+                .build();
         em.persist(user1);
         em.persist(user2);
+        em.persist(older);
         em.persist(itemRequest);
-        em.persist(item);
 
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllPageable(user1.getId(), Pageable.ofSize(1));
+        List<ItemRequest> itemRequests = itemRequestRepository
+                .findAllByRequestorIdOrderByCreatedDescIdDesc(user2.getId(), PageRequest.of(1, 1));
         assertEquals(1, itemRequests.size());
-        assertEquals(itemRequest.getId(), itemRequests.get(0).getId());
+        assertEquals(older.getId(), itemRequests.get(0).getId());
+    }
+
+    @Test
+    void shouldFindAllByRequestorIdNotNewestFirst() {
+        ItemRequest older = ItemRequest.builder()
+                .description("Need an invisibility cloak")
+                .created(itemRequest.getCreated().minusDays(1))
+                .requestor(user2)
+                .build();
+        ItemRequest own = ItemRequest.builder()
+                .description("Need a broom")
+                .created(itemRequest.getCreated().plusDays(1))
+                .requestor(user1)
+                .build();
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(older);
+        em.persist(own);
+        em.persist(itemRequest);
+        em.persist(item);
+
+        List<ItemRequest> itemRequests = itemRequestRepository
+                .findAllByRequestorIdNotOrderByCreatedDescIdDesc(user1.getId(), Pageable.ofSize(10));
+        assertEquals(List.of(itemRequest.getId(), older.getId()),
+                itemRequests.stream().map(ItemRequest::getId).collect(Collectors.toList()));
+
+        itemRequests = itemRequestRepository
+                .findAllByRequestorIdNotOrderByCreatedDescIdDesc(user1.getId(), PageRequest.of(1, 1));
+        assertEquals(List.of(older.getId()),
+                itemRequests.stream().map(ItemRequest::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldFindAllAfterCursor() {
+        ItemRequest older = ItemRequest.builder()
+                .description("Need an invisibility cloak")
+                .created(itemRequest.getCreated().minusDays(1))
+                .requestor(user2)
+                .build();
+        em.persist(user1);
+        em.persist(user2);
+        em.persist(itemRequest);
+        em.persist(older);
+        em.flush();
+        em.clear();
+
+        List<ItemRequest> firstPage = itemRequestRepository
+                .findAllByRequestorIdNotOrderByCreatedDescIdDesc(user1.getId(), Pageable.ofSize(1));
+        assertEquals(1, firstPage.size());
+        assertEquals(itemRequest.getId(), firstPage.get(0).getId());
+
+        List<ItemRequest> secondPage = itemRequestRepository.findAllAfter(user1.getId(),
+                firstPage.get(0).getCreated(), firstPage.get(0).getId(), Pageable.ofSize(1));
+        assertEquals(1, secondPage.size());
+        assertEquals(older.getId(), secondPage.get(0).getId());
     }
-}
\ No newline at end of file
+}
@@ -15,6 +15,7 @@ import ru.practicum.request.mapper.ItemRequestMapper;
 import ru.practicum.request.model.ItemRequest;
 import ru.practicum.request.repository.ItemRequestRepository;
 import ru.practicum.request.service.ItemRequestServiceImpl;
+import ru.practicum.user.cache.UserExistenceCache;
 import ru.practicum.user.model.User;
 import ru.practicum.user.repository.UserRepository;
 
@@ -39,6 +40,9 @@ public class ItemRequestServiceImplTest {
     @Mock
     ItemRepository itemRepository;
 
+    @Mock
+    UserExistenceCache userExistenceCache;
+
     @InjectMocks
     ItemRequestServiceImpl itemRequestService;
 
@@ -96,19 +100,39 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void shouldGetItemRequestsListWhenUserFound() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
 
         List<ItemRequestResponseDto> responseList = itemRequestService.getItemRequests(user.getId());
         assertTrue(responseList.isEmpty());
         verify(requestRepository, Mockito.times(1))
-                .findAllByRequestorId(anyLong());
+                .findAllByRequestorIdOrderByCreatedDescIdDesc(anyLong());
+    }
+
+    @Test
+    void shouldGetItemRequestsPageWithItemsLoadedInOneQuery() {
+        ItemRequest otherRequest = ItemRequest.builder()
+                .id(2L)
+                .description("Need an invisibility cloak")
+                .created(itemRequest.getCreated().minusDays(1))
+                .requestor(user)
+                .build();
+        when(requestRepository.findAllByRequestorIdOrderByCreatedDescIdDesc(anyLong(), any()))
+                .thenReturn(List.of(itemRequest, otherRequest));
+        when(itemRepository.findAllByRequestIdIn(List.of(1L, 2L)))
+                .thenReturn(Collections.singletonList(item));
+
+        List<ItemRequestResponseDto> responseList = itemRequestService.getItemRequests(user.getId(), 0, 2);
+        assertEquals(2, responseList.size());
+        assertEquals(1, responseList.get(0).getItems().size());
+        assertEquals(item.getId(), responseList.get(0).getItems().get(0).getId());
+        assertTrue(responseList.get(1).getItems().isEmpty());
+        verify(itemRepository, never())
+                .findAllByRequestId(anyLong());
     }
 
     @Test
     void shouldNotGetItemRequestsListAndThrowExceptionWhenUserNotFound() {
-        when(userRepository.findById(anyLong()))
-                .thenThrow(NotFoundException.class);
+        doThrow(NotFoundException.class)
+                .when(userExistenceCache).check(anyLong());
 
         assertThrows(NotFoundException.class,
                 () -> itemRequestService.getItemRequests(561L));
@@ -116,24 +140,22 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void shouldGetAllItemRequestsWhenUserFound() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
 
-        when(requestRepository.findAllPageable(anyLong(), any()))
+        when(requestRepository.findAllByRequestorIdNotOrderByCreatedDescIdDesc(anyLong(), any()))
                 .thenReturn(Collections.singletonList(itemRequest));
 
         List<ItemRequestResponseDto> responseList = itemRequestService.getAllItemRequests(1L, 0, 10);
         assertEquals(1, responseList.size());
 
         verify(requestRepository)
-                .findAllPageable(anyLong(), any());
+                .findAllByRequestorIdNotOrderByCreatedDescIdDesc(anyLong(), any());
 
     }
 
     @Test
     void shouldNotGetAllItemRequestsAndThrowExceptionWhenUserNotFound() {
-        when(userRepository.findById(anyLong()))
-                .thenThrow(NotFoundException.class);
+        doThrow(NotFoundException.class)
+                .when(userExistenceCache).check(anyLong());
 
         assertThrows(NotFoundException.class,
                 () -> itemRequestService.getAllItemRequests(1L, 0, 10));
@@ -141,8 +163,6 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void shouldGetItemRequestByIdWhenUserAndRequestFound() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
 
         when(requestRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(itemRequest));
@@ -161,8 +181,8 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void shouldNotGetItemRequestByIdAndTrowExceptionWhenUserNotFound() {
-        when(userRepository.findById(anyLong()))
-                .thenThrow(NotFoundException.class);
+        doThrow(NotFoundException.class)
+                .when(userExistenceCache).check(anyLong());
 
         assertThrows(NotFoundException.class,
                 () -> itemRequestService.getItemRequestById(1L, 1L));
@@ -170,8 +190,6 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void shouldNotGetItemRequestByIdAndTrowExceptionWhenRequestNotFound() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
 
         when(requestRepository.findById(anyLong()))
                 .thenThrow(NotFoundException.class);
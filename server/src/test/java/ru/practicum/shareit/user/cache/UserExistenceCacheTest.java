@@ -0,0 +1,116 @@
+package ru.practicum.shareit.user.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.exception.NotFoundException;
+import ru.practicum.user.cache.UserExistenceCache;
+import ru.practicum.user.repository.UserRepository;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserExistenceCacheTest {
+
+    @Mock
+    UserRepository userRepository;
+
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    UserExistenceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserExistenceCache(userRepository, meterRegistry, Duration.ofMinutes(1), Duration.ofMinutes(1),
+                100);
+    }
+
+    @Test
+    void shouldQueryRepositoryOnceForKnownUser() {
+        when(userRepository.existsById(1L))
+                .thenReturn(true);
+
+        cache.check(1L);
+        cache.check(1L);
+        assertTrue(cache.exists(1L));
+
+        verify(userRepository, times(1)).existsById(1L);
+        assertEquals(2.0, gets("hit"));
+        assertEquals(1.0, gets("miss"));
+    }
+
+    @Test
+    void shouldCacheMissingUser() {
+        when(userRepository.existsById(2L))
+                .thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> cache.check(2L));
+        assertThrows(NotFoundException.class, () -> cache.check(2L));
+
+        verify(userRepository, times(1)).existsById(2L);
+    }
+
+    @Test
+    void shouldReloadUserAfterEviction() {
+        when(userRepository.existsById(3L))
+                .thenReturn(false, true);
+
+        assertFalse(cache.exists(3L));
+        cache.evict(3L);
+        assertTrue(cache.exists(3L));
+
+        verify(userRepository, times(2)).existsById(3L);
+    }
+
+    @Test
+    void shouldEvictUserAgainAfterTransactionCompletes() {
+        when(userRepository.existsById(4L))
+                .thenReturn(true, false);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(4L);
+            // Параллельная проверка до фиксации удаления еще видит пользователя
+            assertTrue(cache.exists(4L));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(cache.exists(4L));
+    }
+
+    @Test
+    void shouldBypassCacheWhenTtlIsZero() {
+        cache = new UserExistenceCache(userRepository, meterRegistry, Duration.ZERO, Duration.ZERO, 100);
+        when(userRepository.existsById(5L))
+                .thenReturn(true);
+
+        cache.check(5L);
+        cache.check(5L);
+
+        verify(userRepository, times(2)).existsById(5L);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "shareit.user.exists")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -8,19 +8,26 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.exception.NotFoundException;
+import ru.practicum.pagination.CursorPage;
 import ru.practicum.user.controller.UserController;
 import ru.practicum.user.dto.UserDto;
 import ru.practicum.user.service.UserServiceImpl;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -65,6 +72,56 @@ class UserControllerTest {
         verify(userService, Mockito.times(1)).getUsers();
     }
 
+    @Test
+    void shouldGetUsersPage() throws Exception {
+        when(userService.getUsers(isNull(), eq(1)))
+                .thenReturn(new CursorPage<>(List.of(userDto), "MQ"));
+
+        mvc.perform(get("/users")
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "MQ"))
+                .andExpect(jsonPath("$[0].id").value(1L));
+
+        verify(userService, Mockito.never()).getUsers();
+    }
+
+    @Test
+    void shouldGetUsersPageAfterCursorWithDefaultSize() throws Exception {
+        when(userService.getUsers("MQ", 10))
+                .thenReturn(new CursorPage<>(List.of(userUpd), null));
+
+        mvc.perform(get("/users")
+                        .param("cursor", "MQ")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$[0].name").value("H.J.P."));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStreamUsersAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(userDto);
+            consumer.accept(userUpd);
+            return null;
+        }).when(userService).streamUsers(any());
+
+        MvcResult result = mvc.perform(get("/users/stream")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(userDto) + "\n"
+                        + objectMapper.writeValueAsString(userUpd) + "\n"));
+    }
+
     @Test
     void shouldCreateUser() throws Exception {
         when(userService.createUser(any(UserDto.class)))
@@ -139,6 +196,19 @@ class UserControllerTest {
                 .getUserById(anyLong());
     }
 
+    @Test
+    void shouldGetUsersByIds() throws Exception {
+        when(userService.getUsersByIds(List.of(2L, 1L)))
+                .thenReturn(List.of(userUpd, userDto));
+
+        mvc.perform(get("/users")
+                        .param("ids", "2", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value(userUpd.getName()))
+                .andExpect(jsonPath("$[1].id").value(1L));
+    }
+
     @Test
     void shouldNotGetUserByIdAndThrowExceptionWhenUserNotFound() throws Exception {
         when(userService.getUserById(anyLong()))
@@ -4,12 +4,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.pagination.OffsetPageRequest;
+import ru.practicum.user.dto.UserDto;
 import ru.practicum.user.model.User;
 import ru.practicum.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
 class UserRepositoryTest {
@@ -31,13 +37,45 @@ class UserRepositoryTest {
             .build();
 
     @Test
-    void shouldFindByEmailContainingIgnoreCase() {
+    void shouldRejectEmailDifferingOnlyInCase() {
+        userRepository.saveAndFlush(user1);
+        user2.setEmail("Email@EX.com");
+
+        assertThrows(DataIntegrityViolationException.class, () -> userRepository.saveAndFlush(user2));
+    }
+
+    @Test
+    void shouldRejectEmailChangedToTakenOne() {
+        userRepository.saveAndFlush(user1);
+        userRepository.saveAndFlush(user2);
+        em.clear();
+
+        User user = userRepository.findById(user2.getId()).orElseThrow();
+        user.setEmail("EMAIL@ex.com");
+        assertThrows(DataIntegrityViolationException.class, () -> userRepository.saveAndFlush(user));
+    }
+
+    @Test
+    void shouldFindAllByIdGreaterThanOrderByIdAsc() {
         em.persist(user1);
         em.persist(user2);
 
-        List<User> users = userRepository.findByEmailContainingIgnoreCase("Email@ex.Com");
-        assertEquals(1, users.size());
-        assertEquals(user1.getId(), users.get(0).getId());
+        List<User> users = userRepository.findAllByIdGreaterThanOrderByIdAsc(0L, OffsetPageRequest.of(0, 1));
+        assertEquals(List.of(user1.getId()), users.stream().map(User::getId).collect(Collectors.toList()));
+
+        users = userRepository.findAllByIdGreaterThanOrderByIdAsc(user1.getId(), OffsetPageRequest.of(0, 10));
+        assertEquals(List.of(user2.getId()), users.stream().map(User::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldStreamAllOrderedById() {
+        em.persist(user2);
+        em.persist(user1);
 
+        try (Stream<UserDto> users = userRepository.streamAll()) {
+            assertEquals(List.of(new UserDto(user2.getId(), user2.getName(), user2.getEmail()),
+                            new UserDto(user1.getId(), user1.getName(), user1.getEmail())),
+                    users.collect(Collectors.toList()));
+        }
     }
-}
\ No newline at end of file
+}
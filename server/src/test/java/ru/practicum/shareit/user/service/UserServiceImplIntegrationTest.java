@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.exception.ValidationException;
 import ru.practicum.user.dto.UserDto;
 import ru.practicum.user.mapper.UserMapper;
 import ru.practicum.user.model.User;
@@ -42,4 +43,17 @@ class UserServiceImplIntegrationTest {
                 () -> assertEquals(userDto.getEmail(), user1.getEmail())
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRejectEmailDifferingOnlyInCase() {
+        userService.createUser(UserDto.builder().name("Ron").email("ron@ex.com").build());
+        UserDto ginny = userService.createUser(UserDto.builder().name("Ginny").email("ginny@ex.com").build());
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> userService.createUser(UserDto.builder().name("Ronald").email("Ron@EX.com").build()));
+        assertEquals("Пользователь с email Ron@EX.com уже существует", e.getMessage());
+        assertThrows(ValidationException.class,
+                () -> userService.updateUser(ginny.getId(), UserDto.builder().email("RON@ex.com").build()));
+        assertEquals("ginny@ex.com", userService.getUserById(ginny.getId()).getEmail());
+    }
+}
@@ -1,24 +1,36 @@
 package ru.practicum.shareit.user.service;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import ru.practicum.exception.NotFoundException;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.pagination.Cursor;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.pagination.OffsetPageRequest;
+import ru.practicum.user.cache.UserExistenceCache;
 import ru.practicum.user.dto.UserDto;
 import ru.practicum.user.mapper.UserMapper;
 import ru.practicum.user.model.User;
 import ru.practicum.user.repository.UserRepository;
 import ru.practicum.user.service.UserServiceImpl;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.verify;
@@ -29,6 +41,9 @@ class UserServiceImplTest {
     @Mock
     UserRepository userRepository;
 
+    @Mock
+    UserExistenceCache userExistenceCache;
+
     @InjectMocks
     UserServiceImpl userService;
 
@@ -47,9 +62,63 @@ class UserServiceImplTest {
         assertEquals(user1.getName(), response.get(0).getName());
     }
 
+    @Test
+    void shouldGetUsersByIdsInRequestedOrder() {
+        User user2 = User.builder()
+                .id(2L)
+                .email("email@exx.com")
+                .name("Hermione Granger")
+                .build();
+        when(userRepository.findAllById(List.of(2L, 3L, 1L)))
+                .thenReturn(List.of(user1, user2));
+
+        List<UserDto> response = userService.getUsersByIds(List.of(2L, 3L, 1L));
+
+        assertEquals(List.of(2L, 1L), List.of(response.get(0).getId(), response.get(1).getId()));
+        assertEquals(2, response.size());
+    }
+
+    @Test
+    void shouldGetUsersPageWithNextCursor() {
+        User user2 = User.builder()
+                .id(2L)
+                .email("email@exx.com")
+                .name("Hermione Granger")
+                .build();
+        when(userRepository.findAllByIdGreaterThanOrderByIdAsc(0L, OffsetPageRequest.of(0, 2)))
+                .thenReturn(List.of(user1, user2));
+
+        CursorPage<UserDto> page = userService.getUsers(null, 2);
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(Cursor.encode(2L), page.getNextCursor());
+    }
+
+    @Test
+    void shouldGetLastUsersPageAfterCursor() {
+        when(userRepository.findAllByIdGreaterThanOrderByIdAsc(1L, OffsetPageRequest.of(0, 2)))
+                .thenReturn(List.of());
+
+        CursorPage<UserDto> page = userService.getUsers(Cursor.encode(1L), 2);
+
+        assertTrue(page.getContent().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void shouldStreamUsers() {
+        when(userRepository.streamAll())
+                .thenReturn(Stream.of(UserMapper.toUserDto(user1)));
+        List<UserDto> users = new ArrayList<>();
+
+        userService.streamUsers(users::add);
+
+        assertEquals(List.of(UserMapper.toUserDto(user1)), users);
+    }
+
     @Test
     void createUser() {
-        when(userRepository.save(any(User.class)))
+        when(userRepository.saveAndFlush(any(User.class)))
                 .thenReturn(user1);
 
         UserDto userDto = userService.createUser(UserMapper.toUserDto(user1));
@@ -57,7 +126,8 @@ class UserServiceImplTest {
         assertEquals(user1.getId(), userDto.getId());
         assertEquals(user1.getName(), userDto.getName());
         verify(userRepository, Mockito.times(1))
-                .save(any(User.class));
+                .saveAndFlush(any(User.class));
+        verify(userExistenceCache).evict(user1.getId());
     }
 
     @Test
@@ -69,7 +139,7 @@ class UserServiceImplTest {
                 .build();
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
-        when(userRepository.save(any(User.class)))
+        when(userRepository.saveAndFlush(any(User.class)))
                 .thenReturn(user2);
 
         UserDto userDto = userService.updateUser(user1.getId(), UserMapper.toUserDto(user2));
@@ -77,7 +147,39 @@ class UserServiceImplTest {
         assertEquals(user1.getId(), userDto.getId());
         assertEquals(user1.getName(), userDto.getName());
         verify(userRepository, Mockito.times(1))
-                .save(any(User.class));
+                .saveAndFlush(any(User.class));
+    }
+
+    @Test
+    void shouldNotCreateUserAndThrowExceptionWhenEmailTaken() {
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(uniqueViolation("PUBLIC.UQ_USER_EMAIL_LOWER_INDEX_4"));
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> userService.createUser(UserMapper.toUserDto(user1)));
+        assertEquals("Пользователь с email email@ex.com уже существует", e.getMessage());
+    }
+
+    @Test
+    void shouldNotTranslateOtherConstraintViolationsOnCreate() {
+        DataIntegrityViolationException violation = uniqueViolation("PK_USER");
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(violation);
+
+        assertEquals(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> userService.createUser(UserMapper.toUserDto(user1))));
+    }
+
+    @Test
+    void shouldNotUpdateUserAndThrowExceptionWhenEmailTaken() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user1));
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(uniqueViolation("uq_user_email_lower"));
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> userService.updateUser(user1.getId(), UserDto.builder().email("EMAIL@exx.com").build()));
+        assertEquals("Пользователь с email EMAIL@exx.com уже существует", e.getMessage());
     }
 
     @Test
@@ -88,7 +190,7 @@ class UserServiceImplTest {
         assertThrows(NotFoundException.class,
                 () -> userService.updateUser(user1.getId(), any(UserDto.class)));
         verify(userRepository, Mockito.never())
-                .save(any(User.class));
+                .saveAndFlush(any(User.class));
     }
 
     @Test
@@ -120,6 +222,7 @@ class UserServiceImplTest {
 
         verify(userRepository, Mockito.times(1))
                 .deleteById(1L);
+        verify(userExistenceCache).evict(1L);
     }
 
     @Test
@@ -130,4 +233,9 @@ class UserServiceImplTest {
         assertThrows(NotFoundException.class,
                 () -> userService.deleteUserById(user1.getId()));
     }
-}
\ No newline at end of file
+
+    private DataIntegrityViolationException uniqueViolation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), constraint));
+    }
+}